@@ -0,0 +1,91 @@
+package com.tradingbot.event;
+
+import com.tradingbot.dto.PriceTick;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.SimpleApplicationEventMulticaster;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-tick cost of delivering a websocket frame to strategies.
+ * <p>
+ * {@link #tickBus} is the current path: a token lookup and a listener array walk per tick.
+ * {@link #priceTickEvents} is the path it replaced, kept as a baseline: a {@link PriceTickEvent}
+ * per tick through Spring's multicaster, with each listener filtering the tokens it follows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class TickDispatchBenchmark {
+
+    private static final int FRAME_TICKS = 64;
+    private static final long FIRST_TOKEN = 12_800_000L;
+
+    /** Subscribed tokens; the frame's ticks are spread over them. */
+    @Param({"2", "50"})
+    public int tokens;
+
+    /** Strategies listening to every subscribed token. */
+    @Param({"1", "4"})
+    public int listeners;
+
+    private TickBus tickBus;
+    private TickBuffer frame;
+    private SimpleApplicationEventMulticaster multicaster;
+
+    @Setup(Level.Trial)
+    public void setUp(Blackhole blackhole) {
+        tickBus = new TickBus();
+        multicaster = new SimpleApplicationEventMulticaster();
+        Set<Long> subscribed = new HashSet<>();
+        for (int t = 0; t < tokens; t++) {
+            subscribed.add(FIRST_TOKEN + t);
+        }
+        for (int l = 0; l < listeners; l++) {
+            TickListener listener = (token, price, timestamp) -> blackhole.consume(price);
+            for (int t = 0; t < tokens; t++) {
+                tickBus.register(FIRST_TOKEN + t, listener);
+            }
+            multicaster.addApplicationListener((ApplicationListener<PriceTickEvent>) event -> {
+                PriceTick tick = event.getPriceTick();
+                if (subscribed.contains(tick.getInstrumentToken())) {
+                    blackhole.consume(tick.getLastTradedPrice());
+                }
+            });
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        frame = new TickBuffer(FRAME_TICKS);
+        for (int i = 0; i < FRAME_TICKS; i++) {
+            frame.add(FIRST_TOKEN + random.nextInt(tokens), 200 + random.nextInt(2000) * 0.05,
+                    1_735_789_500_000L + i);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAME_TICKS)
+    public void tickBus() {
+        tickBus.publish(frame);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAME_TICKS)
+    public void priceTickEvents() {
+        for (int i = 0; i < FRAME_TICKS; i++) {
+            multicaster.multicastEvent(new PriceTickEvent(this, new PriceTick(frame.token(i), frame.price(i))));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.tradingbot.service;
+
+import com.tradingbot.dto.NfoInstrument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Instrument lookups made while placing a straddle: by contract through
+ * {@link KiteService#getInstrument} and by trading symbol through
+ * {@link KiteService#getInstrumentToken}, against a master parsed from a full-size dump.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class InstrumentLookupBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    private KiteService kiteService;
+    private final int[] strikes = new int[QUERIES];
+    private final String[] types = new String[QUERIES];
+    private final LocalDate[] expiries = new LocalDate[QUERIES];
+    private final String[] symbols = new String[QUERIES];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        InstrumentMaster master = new NfoInstrumentParser(Set.of("BANKNIFTY"))
+                .parse(new ByteArrayInputStream(NfoDumpFixture.dump()));
+        kiteService = new KiteService(null, null, null, null, null, null);
+        ReflectionTestUtils.setField(kiteService, "instrumentMaster", master);
+
+        List<LocalDate> listed = NfoDumpFixture.indexExpiries();
+        int ladder = (NfoDumpFixture.BANKNIFTY_HIGH - NfoDumpFixture.BANKNIFTY_LOW) / NfoDumpFixture.BANKNIFTY_STEP + 1;
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < QUERIES; i++) {
+            strikes[i] = NfoDumpFixture.BANKNIFTY_LOW + random.nextInt(ladder) * NfoDumpFixture.BANKNIFTY_STEP;
+            types[i] = random.nextBoolean() ? "CE" : "PE";
+            expiries[i] = listed.get(random.nextInt(listed.size()));
+            symbols[i] = NfoDumpFixture.bankNiftySymbol(expiries[i], strikes[i], types[i]);
+        }
+        if (kiteService.getInstrument(strikes[0], types[0], expiries[0]) == null
+                || kiteService.getInstrumentToken(symbols[0]) == null) {
+            throw new IllegalStateException("Fixture contracts are missing from the master");
+        }
+    }
+
+    @Benchmark
+    public NfoInstrument getInstrument() {
+        int i = next++ & (QUERIES - 1);
+        return kiteService.getInstrument(strikes[i], types[i], expiries[i]);
+    }
+
+    @Benchmark
+    public String getInstrumentToken() {
+        return kiteService.getInstrumentToken(symbols[next++ & (QUERIES - 1)]);
+    }
+}
@@ -0,0 +1,86 @@
+package com.tradingbot.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tradingbot.entity.Order;
+import com.tradingbot.entity.Position;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Handling of Kite REST responses: validating a response body and mapping order and position
+ * payloads to entities before they are persisted.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class KiteResponseBenchmark {
+
+    private static final String ORDER = """
+            {"order_id":"250102000123456","exchange_order_id":"1300000012345678","parent_order_id":null,
+             "status":"COMPLETE","status_message":null,"order_timestamp":"2025-01-02 09:20:01",
+             "exchange_timestamp":"2025-01-02 09:20:01","variety":"regular","exchange":"NFO",
+             "tradingsymbol":"BANKNIFTY2510248000CE","instrument_token":12806402,"order_type":"MARKET",
+             "transaction_type":"BUY","validity":"DAY","product":"MIS","quantity":35,"disclosed_quantity":0,
+             "price":0,"trigger_price":0,"average_price":201.45,"filled_quantity":35,"pending_quantity":0,
+             "cancelled_quantity":0,"market_protection":0,"tag":null,"guid":"01Xf8hG1F1Jx7Ds"}""";
+
+    private static final String POSITION = """
+            {"tradingsymbol":"BANKNIFTY2510248000CE","exchange":"NFO","instrument_token":12806402,
+             "product":"MIS","quantity":35,"overnight_quantity":0,"multiplier":1,"average_price":201.45,
+             "close_price":0,"last_price":214.3,"value":-7050.75,"pnl":449.75,"m2m":449.75,
+             "unrealised":449.75,"realised":0,"buy_quantity":35,"buy_price":201.45,"buy_value":7050.75,
+             "sell_quantity":0,"sell_price":0,"sell_value":0,"day_buy_quantity":35,"day_buy_price":201.45,
+             "day_buy_value":7050.75,"day_sell_quantity":0,"day_sell_price":0,"day_sell_value":0}""";
+
+    private static final String SUCCESS = "{\"status\":\"success\",\"data\":{\"order_id\":\"250102000123456\"}}";
+
+    private static final String ERROR = "{\"status\":\"error\",\"message\":\"Incorrect `api_key` or `access_token`.\","
+            + "\"data\":null,\"error_type\":\"TokenException\"}";
+
+    private KiteService kiteService;
+    private TradingUtilityService tradingUtilityService;
+    private Map<String, Object> order;
+    private Map<String, Object> position;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        kiteService = new KiteService(null, null, null, null, null, null);
+        tradingUtilityService = new TradingUtilityService();
+        ObjectMapper mapper = new ObjectMapper();
+        TypeReference<Map<String, Object>> json = new TypeReference<>() {
+        };
+        order = mapper.readValue(ORDER, json);
+        position = mapper.readValue(POSITION, json);
+    }
+
+    @Benchmark
+    public Order mapToOrderEntity() {
+        return kiteService.mapToOrderEntity(order);
+    }
+
+    @Benchmark
+    public Position mapToPositionEntity() {
+        return kiteService.mapToPositionEntity(position);
+    }
+
+    @Benchmark
+    public boolean isValidKiteResponse() throws IOException {
+        return tradingUtilityService.isValidKiteResponse(SUCCESS);
+    }
+
+    @Benchmark
+    public boolean isValidKiteResponseError() throws IOException {
+        return tradingUtilityService.isValidKiteResponse(ERROR);
+    }
+}
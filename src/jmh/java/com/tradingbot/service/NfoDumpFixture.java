@@ -0,0 +1,84 @@
+package com.tradingbot.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic stand-in for the Kite {@code /instruments/NFO} dump, shaped like the real one:
+ * weekly index options on a wide strike ladder, monthly stock options, and futures, so most rows
+ * are rejected by an index-only filter just as they are in production.
+ */
+final class NfoDumpFixture {
+
+    static final LocalDate FIRST_EXPIRY = LocalDate.of(2025, 1, 2);
+    static final int INDEX_EXPIRIES = 6;
+    static final int BANKNIFTY_LOW = 40_000;
+    static final int BANKNIFTY_HIGH = 60_000;
+    static final int BANKNIFTY_STEP = 100;
+
+    private static final int STOCKS = 180;
+    private static final int STOCK_EXPIRIES = 3;
+    private static final int STOCK_STRIKES = 40;
+    private static final char[] MONTH_CODES = "123456789OND".toCharArray();
+
+    private NfoDumpFixture() {
+    }
+
+    static List<LocalDate> indexExpiries() {
+        List<LocalDate> expiries = new ArrayList<>(INDEX_EXPIRIES);
+        for (int i = 0; i < INDEX_EXPIRIES; i++) {
+            expiries.add(FIRST_EXPIRY.plusWeeks(i));
+        }
+        return expiries;
+    }
+
+    static byte[] dump() {
+        StringBuilder csv = new StringBuilder(8 << 20);
+        csv.append("instrument_token,exchange_token,tradingsymbol,name,last_price,expiry,strike,tick_size,lot_size,"
+                + "instrument_type,segment,exchange\n");
+        long[] token = {10_000_000L};
+        List<LocalDate> weeklies = indexExpiries();
+        indexOptions(csv, token, "BANKNIFTY", weeklies, BANKNIFTY_LOW, BANKNIFTY_HIGH, BANKNIFTY_STEP, 15);
+        indexOptions(csv, token, "NIFTY", weeklies, 18_000, 28_000, 50, 25);
+        indexOptions(csv, token, "FINNIFTY", weeklies, 18_000, 26_000, 50, 25);
+        indexOptions(csv, token, "MIDCPNIFTY", weeklies, 9_000, 14_000, 25, 50);
+        List<LocalDate> monthlies = new ArrayList<>(STOCK_EXPIRIES);
+        for (int i = 0; i < STOCK_EXPIRIES; i++) {
+            monthlies.add(FIRST_EXPIRY.plusMonths(i).withDayOfMonth(28));
+        }
+        for (int s = 0; s < STOCKS; s++) {
+            String name = String.format("STOCK%03d", s);
+            int low = 100 + s * 25;
+            indexOptions(csv, token, name, monthlies, low, low + (STOCK_STRIKES - 1) * 10, 10, 500);
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void indexOptions(StringBuilder csv, long[] token, String name, List<LocalDate> expiries,
+                                     int low, int high, int step, int lotSize) {
+        for (LocalDate expiry : expiries) {
+            String prefix = name + String.format("%02d", expiry.getYear() % 100)
+                    + MONTH_CODES[expiry.getMonthValue() - 1] + String.format("%02d", expiry.getDayOfMonth());
+            row(csv, token[0]++, prefix + "FUT", name, expiry, 0, lotSize, "FUT", "NFO-FUT");
+            for (int strike = low; strike <= high; strike += step) {
+                row(csv, token[0]++, prefix + strike + "CE", name, expiry, strike, lotSize, "CE", "NFO-OPT");
+                row(csv, token[0]++, prefix + strike + "PE", name, expiry, strike, lotSize, "PE", "NFO-OPT");
+            }
+        }
+    }
+
+    private static void row(StringBuilder csv, long token, String symbol, String name, LocalDate expiry, int strike,
+                            int lotSize, String type, String segment) {
+        csv.append(token).append(',').append(token >> 8).append(',').append(symbol).append(",\"").append(name)
+                .append("\",0,").append(expiry).append(',').append(strike).append(",0.05,").append(lotSize)
+                .append(',').append(type).append(',').append(segment).append(",NFO\n");
+    }
+
+    /** The trading symbol the fixture gives a BANKNIFTY option. */
+    static String bankNiftySymbol(LocalDate expiry, int strike, String type) {
+        return "BANKNIFTY" + String.format("%02d", expiry.getYear() % 100) + MONTH_CODES[expiry.getMonthValue() - 1]
+                + String.format("%02d", expiry.getDayOfMonth()) + strike + type;
+    }
+}
@@ -0,0 +1,45 @@
+package com.tradingbot.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to parse a full NFO instrument dump into an {@link InstrumentMaster}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class NfoInstrumentParserBenchmark {
+
+    /** Comma-separated underlyings to keep, as in {@code trading.instruments.underlyings}. */
+    @Param({"BANKNIFTY", "BANKNIFTY,NIFTY,FINNIFTY,MIDCPNIFTY"})
+    public String underlyings;
+
+    private byte[] dump;
+    private Set<String> kept;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dump = NfoDumpFixture.dump();
+        kept = new LinkedHashSet<>(Arrays.asList(underlyings.split(",")));
+    }
+
+    @Benchmark
+    public InstrumentMaster parse() throws IOException {
+        return new NfoInstrumentParser(kept).parse(new ByteArrayInputStream(dump));
+    }
+}
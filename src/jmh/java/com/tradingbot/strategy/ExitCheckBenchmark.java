@@ -0,0 +1,143 @@
+package com.tradingbot.strategy;
+
+import com.tradingbot.dto.TradingConfigDto;
+import com.tradingbot.entity.Trade;
+import com.tradingbot.event.TickBus;
+import com.tradingbot.model.MultiLegOrderResponse;
+import com.tradingbot.repository.TradeRepository;
+import com.tradingbot.service.PositionBook;
+import com.tradingbot.service.TradingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link BuyStraddleStrategy#checkAndClosePositions} per tick against an in-memory book.
+ * <p>
+ * Open straddles are saved through {@link TradingService#saveTrade}, as order updates save them.
+ * The strategy is wired to a trading service that counts exit requests without sending orders, so a crossing tick runs the full decision path
+ * every time. The exit index is built on the strategy's event loop; the loop is idle afterwards,
+ * so ticks are checked directly on the benchmark thread.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ExitCheckBenchmark {
+
+    private static final long CE_TOKEN = 12806402L;
+    private static final long PE_TOKEN = 12806658L;
+    private static final long UNTRACKED_TOKEN = 260105L;
+    private static final BigDecimal ENTRY = new BigDecimal("200.00");
+
+    /** Open straddles; each has a CE and a PE leg. */
+    @Param({"1", "32"})
+    public int straddles;
+
+    private BuyStraddleStrategy strategy;
+    private FakeTradingService tradingService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        TradeRepository tradeRepository = emptyRepository();
+        PositionBook positionBook = new PositionBook(tradeRepository);
+        tradingService = new FakeTradingService(tradeRepository, positionBook);
+        for (int i = 0; i < straddles; i++) {
+            // Spread entries by a tick so the thresholds differ and the index has to search.
+            BigDecimal entry = ENTRY.add(new BigDecimal("0.05").multiply(BigDecimal.valueOf(i)));
+            tradingService.saveTrade("BANKNIFTY25JAN48000CE", TradingService.TRANSACTION_BUY, "bench-ce-" + i, entry,
+                    String.valueOf(CE_TOKEN), Trade.TradeStatus.OPEN);
+            tradingService.saveTrade("BANKNIFTY25JAN48000PE", TradingService.TRANSACTION_BUY, "bench-pe-" + i, entry,
+                    String.valueOf(PE_TOKEN), Trade.TradeStatus.OPEN);
+        }
+        strategy = new BuyStraddleStrategy(null, tradingService, new TickBus(), positionBook);
+        ReflectionTestUtils.setField(strategy, "eventQueueCapacity", 1024);
+        strategy.startEventLoop();
+        strategy.execute(new TradingConfigDto(LocalDate.of(2025, 1, 30), null,
+                new BigDecimal("20.00"), new BigDecimal("10.00")));
+        CountDownLatch indexed = new CountDownLatch(1);
+        strategy.eventLoop.submit(StrategyEventLoop.Kind.COMMAND, indexed::countDown);
+        if (!indexed.await(10, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Exit index was not built");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        strategy.stopEventLoop();
+    }
+
+    /** A tick on a token with no open position: one index probe. */
+    @Benchmark
+    public void untrackedToken() {
+        strategy.checkAndClosePositions(UNTRACKED_TOKEN, 512.35);
+    }
+
+    /** A tick on an open position that stays between its stop and target, the common case. */
+    @Benchmark
+    public void insideBand() {
+        strategy.checkAndClosePositions(CE_TOKEN, 201.45);
+    }
+
+    /** A tick through the stop of every straddle; each triggers an exit of both legs. */
+    @Benchmark
+    public int stopCrossed() {
+        strategy.checkAndClosePositions(CE_TOKEN, 185.00);
+        return tradingService.exits;
+    }
+
+    /**
+     * A repository that holds nothing: no order id is found and saves are dropped.
+     */
+    private static TradeRepository emptyRepository() {
+        return (TradeRepository) Proxy.newProxyInstance(TradeRepository.class.getClassLoader(),
+                new Class<?>[]{TradeRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findByOrderId" -> Optional.empty();
+                    case "save" -> args[0];
+                    case "toString" -> "EmptyTradeRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * Saves trades into the position book as order updates do, and records exits without
+     * closing anything, so every crossing tick finds the same open trades.
+     */
+    static final class FakeTradingService extends TradingService {
+        int exits;
+
+        FakeTradingService(TradeRepository tradeRepository, PositionBook positionBook) {
+            super(null, tradeRepository, null, null, positionBook, null, null);
+        }
+
+        @Override
+        public MultiLegOrderResponse closeTrades(List<Trade> trades, List<BigDecimal> exitPrices) {
+            exits += trades.size();
+            return null;
+        }
+
+        @Override
+        public boolean isTradingTime() {
+            return false;
+        }
+
+        @Override
+        public void loadTradingConfig(TradingConfigDto config) {
+        }
+    }
+}
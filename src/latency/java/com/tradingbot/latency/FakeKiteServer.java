@@ -0,0 +1,127 @@
+package com.tradingbot.latency;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.tradingbot.util.FixedPoint;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the Kite REST API, on a loopback port.
+ * <p>
+ * It serves what the exit path calls: order placement, which is acknowledged at once, LTP quotes
+ * from the prices the replay has reached, and an instrument dump listing the replayed tokens.
+ * Anything else gets an empty success so background calls never fail. Exit orders are reported
+ * to the {@link LatencyProbe} as they arrive.
+ */
+final class FakeKiteServer implements Closeable {
+
+    private final HttpServer server;
+    private final ExecutorService workers;
+    private final LatencyProbe probe;
+    private volatile String instrumentDump = "";
+    private final Map<String, Long> lastPricePaise = new ConcurrentHashMap<>();
+    private final AtomicLong nextOrderId = new AtomicLong(250_102_000_000_000L);
+
+    FakeKiteServer(LatencyProbe probe) throws IOException {
+        this.probe = probe;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 64);
+        AtomicInteger threads = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(8, runnable -> {
+            Thread thread = new Thread(runnable, "fake-kite-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(workers);
+        server.createContext("/orders/regular", this::placeOrder);
+        server.createContext("/quote/ltp", this::quote);
+        server.createContext("/instruments/NFO", this::instruments);
+        server.createContext("/", exchange -> respond(exchange, 200, "{\"status\":\"success\",\"data\":{}}"));
+    }
+
+    void start() {
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /** Sets the CSV served as the NFO instrument dump. */
+    void setInstrumentDump(String instrumentDump) {
+        this.instrumentDump = instrumentDump;
+    }
+
+    /** Sets the price quoted for a symbol. */
+    void setLastPrice(String symbol, long pricePaise) {
+        lastPricePaise.put(symbol, pricePaise);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        workers.shutdownNow();
+    }
+
+    private void placeOrder(HttpExchange exchange) throws IOException {
+        long receivedAt = System.nanoTime();
+        Map<String, String> form = parseQuery(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+        if ("SELL".equals(form.get("transaction_type"))) {
+            probe.exitOrderReceived(form.get("tradingsymbol"), receivedAt);
+        }
+        respond(exchange, 200, "{\"status\":\"success\",\"data\":{\"order_id\":\"" + nextOrderId.incrementAndGet() + "\"}}");
+    }
+
+    private void quote(HttpExchange exchange) throws IOException {
+        StringBuilder data = new StringBuilder();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                String instrument = URLDecoder.decode(pair.substring(pair.indexOf('=') + 1), StandardCharsets.UTF_8);
+                Long price = lastPricePaise.get(instrument.substring(instrument.indexOf(':') + 1));
+                if (price != null) {
+                    data.append(data.length() == 0 ? "" : ",").append('"').append(instrument)
+                            .append("\":{\"last_price\":").append(FixedPoint.toRupees(price)).append('}');
+                }
+            }
+        }
+        respond(exchange, 200, "{\"status\":\"success\",\"data\":{" + data + "}}");
+    }
+
+    private void instruments(HttpExchange exchange) throws IOException {
+        respond(exchange, 200, instrumentDump);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> values = new HashMap<>();
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                values.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,349 @@
+package com.tradingbot.latency;
+
+import com.tradingbot.TradingBotApplication;
+import com.tradingbot.backtest.TickSource;
+import com.tradingbot.backtest.TickTape;
+import com.tradingbot.dto.StrategyLoopStats;
+import com.tradingbot.dto.TradingConfigDto;
+import com.tradingbot.entity.Trade;
+import com.tradingbot.service.BacktestService;
+import com.tradingbot.service.FakeTickerFeed;
+import com.tradingbot.service.KiteService;
+import com.tradingbot.service.KiteTickerService;
+import com.tradingbot.service.PositionBook;
+import com.tradingbot.service.StrategyService;
+import com.tradingbot.service.TradingService;
+import com.tradingbot.strategy.ExitThresholds;
+import com.tradingbot.strategy.StrategyType;
+import com.tradingbot.util.FixedPoint;
+import com.zerodhatech.models.Tick;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures tick-to-order latency of straddle exits end to end, through the running application.
+ * <p>
+ * The app is booted against a {@link FakeKiteServer} and fed recorded ticks by a
+ * {@link FakeTickerFeed} at a multiple of real time. The harness keeps one straddle open on the
+ * first two tokens of the tape: it seeds both legs into the position book at the last traded
+ * prices, marks the first tick that crosses an exit threshold, and reseeds once the strategy has
+ * closed and persisted both legs. Stage latencies are collected by a {@link LatencyProbe}.
+ * <p>
+ * Settings are system properties:
+ * <ul>
+ *     <li>{@code latency.files}: tick files in the backtest data directory; defaults to
+ *     {@code trading.backtest.default-files}</li>
+ *     <li>{@code latency.rate}: replay speed as a multiple of real time, 0 for no pacing (100)</li>
+ *     <li>{@code latency.target}, {@code latency.stop}: exit distances per unit, in rupees (2)</li>
+ *     <li>{@code latency.warmup-exits}: exits run before recording starts (10)</li>
+ *     <li>{@code latency.max-exits}: recorded exits after which the run stops, 0 for the whole tape (0)</li>
+ *     <li>{@code latency.exit-gap-ms}: least time between exits, keeping both exit orders inside
+ *     the order rate limit (250)</li>
+ *     <li>{@code latency.exit-timeout-ms}: time after which an exit is counted as missed (5000)</li>
+ *     <li>{@code latency.max-p99-micros}: p99 tick-to-order-sent limit in microseconds, 0 for no
+ *     limit (0)</li>
+ *     <li>{@code latency.output}: directory for the {@code .hgrm} percentile files (target/latency)</li>
+ * </ul>
+ * Program arguments are passed to the application, so any of its properties can be overridden.
+ * The process exits with status 1 when no exit was recorded or the p99 limit is exceeded.
+ */
+public final class LatencyHarness implements FakeTickerFeed.FrameListener {
+
+    private static final int LEGS = 2;
+    private static final int LOT_SIZE = 35;
+    private static final int STRIKE = 48000;
+    private static final DateTimeFormatter SYMBOL_EXPIRY = DateTimeFormatter.ofPattern("yyMMdd");
+    private static final long IDLE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final LatencyProbe probe;
+    private final FakeKiteServer kite;
+    private final PositionBook positionBook;
+    private final TradingService tradingService;
+    private final StrategyService strategyService;
+    private final long targetPaise;
+    private final long stopPaise;
+    private final long maxExits;
+    private final long exitGapNanos;
+    private final long exitTimeoutNanos;
+
+    private final long[] tokens = new long[LEGS];
+    private final String[] symbols = new String[LEGS];
+    private final Map<Long, Long> lastPricePaise = new HashMap<>();
+    private final List<Trade> legs = new ArrayList<>(LEGS);
+    private final List<ExitThresholds> thresholds = new ArrayList<>(LEGS);
+    private long seeded;
+    private long crossedAt;
+    private long nextSeedAt;
+    private boolean inFlight;
+
+    private LatencyHarness(LatencyProbe probe, FakeKiteServer kite, ConfigurableApplicationContext context) {
+        this.probe = probe;
+        this.kite = kite;
+        this.positionBook = context.getBean(PositionBook.class);
+        this.tradingService = context.getBean(TradingService.class);
+        this.strategyService = context.getBean(StrategyService.class);
+        this.targetPaise = FixedPoint.toPaise(new BigDecimal(System.getProperty("latency.target", "2")));
+        this.stopPaise = FixedPoint.toPaise(new BigDecimal(System.getProperty("latency.stop", "2")));
+        this.maxExits = Long.getLong("latency.max-exits", 0L);
+        this.exitGapNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("latency.exit-gap-ms", 250L));
+        this.exitTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("latency.exit-timeout-ms", 5000L));
+    }
+
+    public static void main(String[] args) throws Exception {
+        double rate = Double.parseDouble(System.getProperty("latency.rate", "100"));
+        int warmupExits = Integer.getInteger("latency.warmup-exits", 10);
+        long maxP99Micros = Long.getLong("latency.max-p99-micros", 0L);
+        Path output = Path.of(System.getProperty("latency.output", "target/latency"));
+        Files.createDirectories(output);
+
+        LatencyProbe probe = new LatencyProbe(LEGS, warmupExits);
+        int status;
+        try (FakeKiteServer kite = new FakeKiteServer(probe)) {
+            kite.start();
+            List<String> appArgs = new ArrayList<>(List.of(
+                    "--kite.api.base-url=" + kite.baseUrl(),
+                    "--server.port=0",
+                    "--trading.paper.enabled=false",
+                    "--trading.journal.dir=" + output.resolve("journal"),
+                    "--trading.instruments.snapshot-dir=" + output.resolve("instruments")));
+            appArgs.addAll(Arrays.asList(args));
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(TradingBotApplication.class)
+                    .initializers(probe::install)
+                    .run(appArgs.toArray(String[]::new));
+            try {
+                LatencyHarness harness = new LatencyHarness(probe, kite, context);
+                harness.run(context, rate);
+            } finally {
+                context.close();
+            }
+            status = report(probe, output, maxP99Micros);
+        }
+        System.exit(status);
+    }
+
+    private void run(ConfigurableApplicationContext context, double rate) throws IOException {
+        BacktestService backtestService = context.getBean(BacktestService.class);
+        String files = System.getProperty("latency.files", "");
+        TickTape tape = TickTape.load(backtestService.openAll(
+                files.isBlank() ? backtestService.getDefaultFiles() : Arrays.asList(files.split(",")),
+                LocalDate.now()));
+        LocalDate expiry = LocalDate.now().plusDays(7);
+        kite.setInstrumentDump(instrumentDump(tape.cursor(), expiry));
+
+        KiteService kiteService = context.getBean(KiteService.class);
+        if (kiteService.getUpcomingExpiryDates(1).isEmpty()) {
+            throw new IllegalStateException("Instrument master did not load from " + kite.baseUrl());
+        }
+        long processed = loopStats().getProcessed();
+        strategyService.runStrategy(StrategyType.BUY_STRADDLE, new TradingConfigDto(expiry,
+                new BigDecimal("100000000"), FixedPoint.toRupees(targetPaise), FixedPoint.toRupees(stopPaise)));
+        awaitIdle(processed + 1);
+
+        long started = System.nanoTime();
+        long frames = new FakeTickerFeed(context.getBean(KiteTickerService.class), rate).replay(tape.cursor(), this);
+        long deadline = System.nanoTime() + exitTimeoutNanos;
+        while (inFlight && !exitFinished() && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        System.out.printf("Replayed %d frames of %d ticks in %d ms at %sx%n", frames, tape.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), rate > 0 ? rate : "unpaced ");
+    }
+
+    /**
+     * Runs the exit cycle ahead of each frame: finishes or times out the exit in flight, seeds a
+     * new straddle when due, and marks the frame that crosses its exit thresholds.
+     */
+    @Override
+    public boolean beforeFrame(List<Tick> frame) {
+        long now = System.nanoTime();
+        if (inFlight) {
+            if (exitFinished()) {
+                inFlight = false;
+                legs.clear();
+            } else if (now - crossedAt > exitTimeoutNanos) {
+                probe.exitMissed();
+                cancelLegs();
+                inFlight = false;
+            }
+        }
+        if (maxExits > 0 && probe.completedExits() >= probe.warmupExits() + maxExits) {
+            return false;
+        }
+        if (!inFlight && legs.isEmpty() && now >= nextSeedAt && lastPricePaise.size() == LEGS) {
+            seedStraddle();
+        }
+        if (!inFlight && !legs.isEmpty() && crosses(frame)) {
+            inFlight = true;
+            crossedAt = System.nanoTime();
+            nextSeedAt = crossedAt + exitGapNanos;
+            probe.exitCrossed(crossedAt);
+        }
+        for (int i = 0, n = frame.size(); i < n; i++) {
+            Tick tick = frame.get(i);
+            for (int leg = 0; leg < LEGS; leg++) {
+                if (tokens[leg] == tick.getInstrumentToken()) {
+                    long price = FixedPoint.toPaise(tick.getLastTradedPrice());
+                    lastPricePaise.put(tokens[leg], price);
+                    kite.setLastPrice(symbols[leg], price);
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean exitFinished() {
+        return probe.inFlightNanos(System.nanoTime()) == 0L;
+    }
+
+    /**
+     * Opens both legs at the last traded prices through {@link TradingService#saveTrade}, as filled
+     * entry orders are saved, and waits until the strategy has indexed their exit thresholds.
+     */
+    private void seedStraddle() {
+        long processed = loopStats().getProcessed();
+        seeded++;
+        legs.clear();
+        thresholds.clear();
+        for (int leg = 0; leg < LEGS; leg++) {
+            String orderId = "latency-" + seeded + "-" + leg;
+            tradingService.saveTrade(symbols[leg], TradingService.TRANSACTION_BUY, orderId,
+                    FixedPoint.toRupees(lastPricePaise.get(tokens[leg])), Long.toString(tokens[leg]),
+                    Trade.TradeStatus.OPEN);
+            Trade trade = positionBook.findByOrderId(orderId)
+                    .orElseThrow(() -> new IllegalStateException("Seeded leg " + orderId + " is not in the position book"));
+            legs.add(trade);
+            thresholds.add(ExitThresholds.of(trade, targetPaise, stopPaise));
+        }
+        awaitIdle(processed + LEGS);
+    }
+
+    private boolean crosses(List<Tick> frame) {
+        for (int i = 0, n = frame.size(); i < n; i++) {
+            Tick tick = frame.get(i);
+            for (int leg = 0; leg < LEGS; leg++) {
+                if (tokens[leg] == tick.getInstrumentToken()
+                        && thresholds.get(leg).isTriggered(FixedPoint.toPaise(tick.getLastTradedPrice()))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void cancelLegs() {
+        for (Trade trade : legs) {
+            if (trade.getStatus() == Trade.TradeStatus.OPEN) {
+                trade.setStatus(Trade.TradeStatus.CANCELLED);
+                positionBook.update(trade);
+            }
+        }
+        legs.clear();
+    }
+
+    /**
+     * Waits until the strategy loop has handled {@code processed} events and has nothing queued.
+     */
+    private void awaitIdle(long processed) {
+        long deadline = System.nanoTime() + IDLE_TIMEOUT_NANOS;
+        while (true) {
+            StrategyLoopStats stats = loopStats();
+            if (stats.getProcessed() >= processed && stats.getDepth() == 0 && stats.getPendingTicks() == 0) {
+                return;
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Strategy loop did not go idle: " + stats.getDepth() + " queued, "
+                        + stats.getProcessed() + " of " + processed + " processed");
+            }
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+        }
+    }
+
+    private StrategyLoopStats loopStats() {
+        return strategyService.loopStats().stream()
+                .filter(stats -> stats.getStrategy().equals(StrategyType.BUY_STRADDLE.name()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    /**
+     * Lists the first two tokens of the tape as the CE and PE of one BANKNIFTY strike.
+     */
+    private String instrumentDump(TickSource tape, LocalDate expiry) throws IOException {
+        int found = 0;
+        while (found < LEGS && tape.next()) {
+            if (found == 0 || tokens[0] != tape.token()) {
+                tokens[found++] = tape.token();
+            }
+        }
+        if (found < LEGS) {
+            throw new IllegalStateException("The tape needs ticks on two tokens, found " + found);
+        }
+        StringBuilder csv = new StringBuilder("instrument_token,exchange_token,tradingsymbol,name,last_price,expiry,"
+                + "strike,tick_size,lot_size,instrument_type,segment,exchange\n");
+        for (int leg = 0; leg < LEGS; leg++) {
+            String type = leg == 0 ? "CE" : "PE";
+            symbols[leg] = "BANKNIFTY" + expiry.format(SYMBOL_EXPIRY) + STRIKE + type;
+            csv.append(tokens[leg]).append(',').append(tokens[leg] >> 8).append(',').append(symbols[leg])
+                    .append(",\"BANKNIFTY\",0,").append(expiry).append(',').append(STRIKE).append(",0.05,")
+                    .append(LOT_SIZE).append(',').append(type).append(",NFO-OPT,NFO\n");
+        }
+        return csv.toString();
+    }
+
+    /**
+     * Prints the stage percentiles, writes each stage's percentile distribution, and applies the
+     * p99 limit to the end-to-end stage.
+     *
+     * @return the process exit status
+     */
+    private static int report(LatencyProbe probe, Path output, long maxP99Micros) throws IOException {
+        System.out.printf("%nExits: %d recorded, %d warm-up, %d missed%n",
+                Math.max(0L, probe.completedExits() - probe.warmupExits()),
+                Math.min(probe.completedExits(), probe.warmupExits()), probe.missedExits());
+        System.out.printf("%-24s %8s %10s %10s %10s %10s %10s%n", "stage (us)", "count", "p50", "p90", "p99",
+                "p99.9", "max");
+        for (Map.Entry<String, Histogram> stage : probe.stages().entrySet()) {
+            Histogram histogram = stage.getValue();
+            System.out.printf("%-24s %8d %10.1f %10.1f %10.1f %10.1f %10.1f%n", stage.getKey(),
+                    histogram.getTotalCount(), micros(histogram.getValueAtPercentile(50)),
+                    micros(histogram.getValueAtPercentile(90)), micros(histogram.getValueAtPercentile(99)),
+                    micros(histogram.getValueAtPercentile(99.9)), micros(histogram.getMaxValue()));
+            try (PrintStream out = new PrintStream(Files.newOutputStream(output.resolve(stage.getKey() + ".hgrm")))) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+
+        Histogram endToEnd = probe.stages().get(LatencyProbe.TICK_TO_ORDER_SENT);
+        if (endToEnd.getTotalCount() == 0) {
+            System.out.println("FAILED: no exit orders were recorded");
+            return 1;
+        }
+        double p99 = micros(endToEnd.getValueAtPercentile(99));
+        if (maxP99Micros > 0 && p99 > maxP99Micros) {
+            System.out.printf("FAILED: p99 %s of %.1f us exceeds the limit of %d us%n",
+                    LatencyProbe.TICK_TO_ORDER_SENT, p99, maxP99Micros);
+            return 1;
+        }
+        return 0;
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1000.0;
+    }
+}
@@ -0,0 +1,205 @@
+package com.tradingbot.latency;
+
+import com.tradingbot.entity.Trade;
+import com.tradingbot.repository.TradeRepository;
+import com.tradingbot.service.KiteService;
+import com.tradingbot.service.TradingService;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.SynchronizedHistogram;
+import org.springframework.aop.TargetSource;
+import org.springframework.aop.framework.autoproxy.AbstractAutoProxyCreator;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Timestamps one straddle exit at a time as it moves through the app, and records the stage
+ * latencies in HdrHistograms, in nanoseconds.
+ * <p>
+ * Stages are observed from outside the app: the feed reports the tick that crosses a threshold,
+ * proxies around {@link TradingService}, {@link KiteService} and {@link TradeRepository} report
+ * the exit decision, each order acknowledgement and each persisted trade, and the
+ * {@link FakeKiteServer} reports each exit order as it arrives. The first exits only warm up the
+ * JIT and are not recorded.
+ */
+final class LatencyProbe {
+
+    /** The end-to-end stage, from the crossing tick to the exit order reaching Kite. */
+    static final String TICK_TO_ORDER_SENT = "tick-to-order-sent";
+
+    private static final long HIGHEST_TRACKABLE = TimeUnit.SECONDS.toNanos(60);
+
+    private final Histogram tickToDecision = histogram();
+    private final Histogram decisionToOrderSent = histogram();
+    private final Histogram tickToOrderSent = histogram();
+    private final Histogram ackToPersisted = histogram();
+
+    private final int legs;
+    private final int warmupExits;
+    private final Map<String, Long> ackedAt = new ConcurrentHashMap<>();
+    private final AtomicInteger persistedLegs = new AtomicInteger();
+    private final AtomicLong completedExits = new AtomicLong();
+    private final AtomicLong missedExits = new AtomicLong();
+    private volatile long crossedAt;
+    private volatile long decidedAt;
+
+    LatencyProbe(int legs, int warmupExits) {
+        this.legs = legs;
+        this.warmupExits = warmupExits;
+    }
+
+    /**
+     * Installs the proxies that report decisions, acknowledgements and persisted trades.
+     */
+    void install(ConfigurableApplicationContext context) {
+        ProxyCreator creator = new ProxyCreator();
+        creator.setProxyTargetClass(true);
+        creator.setBeanFactory(context.getBeanFactory());
+        context.getBeanFactory().addBeanPostProcessor(creator);
+    }
+
+    /** Starts timing an exit at the moment the crossing tick is handed to the app. */
+    void exitCrossed(long nanos) {
+        ackedAt.clear();
+        persistedLegs.set(0);
+        decidedAt = 0L;
+        crossedAt = nanos;
+    }
+
+    /** Forgets an exit that never completed. */
+    void exitMissed() {
+        crossedAt = 0L;
+        ackedAt.clear();
+        missedExits.incrementAndGet();
+    }
+
+    /**
+     * Stage histograms by name, in pipeline order. Order stages hold one sample per exit order.
+     */
+    Map<String, Histogram> stages() {
+        Map<String, Histogram> stages = new LinkedHashMap<>();
+        stages.put("tick-to-decision", tickToDecision);
+        stages.put("decision-to-order-sent", decisionToOrderSent);
+        stages.put(TICK_TO_ORDER_SENT, tickToOrderSent);
+        stages.put("ack-to-persisted", ackToPersisted);
+        return stages;
+    }
+
+    int warmupExits() {
+        return warmupExits;
+    }
+
+    long completedExits() {
+        return completedExits.get();
+    }
+
+    long missedExits() {
+        return missedExits.get();
+    }
+
+    /** Elapsed time since the current exit's crossing tick, or 0 when no exit is in flight. */
+    long inFlightNanos(long now) {
+        long crossed = crossedAt;
+        return crossed == 0L ? 0L : now - crossed;
+    }
+
+    void exitOrderReceived(String symbol, long nanos) {
+        long decided = decidedAt;
+        if (decided != 0L && recording()) {
+            decisionToOrderSent.recordValue(nanos - decided);
+            tickToOrderSent.recordValue(nanos - crossedAt);
+        }
+    }
+
+    private void exitDecided(long nanos) {
+        long crossed = crossedAt;
+        if (crossed != 0L && decidedAt == 0L) {
+            decidedAt = nanos;
+            if (recording()) {
+                tickToDecision.recordValue(nanos - crossed);
+            }
+        }
+    }
+
+    private void exitAcked(String symbol, long nanos) {
+        if (crossedAt != 0L) {
+            ackedAt.put(symbol, nanos);
+        }
+    }
+
+    private void tradePersisted(Trade trade, long nanos) {
+        if (trade.getStatus() != Trade.TradeStatus.COMPLETE) {
+            return;
+        }
+        Long acked = ackedAt.remove(trade.getSymbol());
+        if (acked == null) {
+            return;
+        }
+        if (recording()) {
+            ackToPersisted.recordValue(nanos - acked);
+        }
+        if (persistedLegs.incrementAndGet() == legs) {
+            crossedAt = 0L;
+            completedExits.incrementAndGet();
+        }
+    }
+
+    private boolean recording() {
+        return completedExits.get() >= warmupExits;
+    }
+
+    private static Histogram histogram() {
+        return new SynchronizedHistogram(HIGHEST_TRACKABLE, 3);
+    }
+
+    /**
+     * Wraps the three observed beans, including when they are referenced early to break a cycle.
+     */
+    @SuppressWarnings("serial") // Installed on a live context and never serialized
+    private final class ProxyCreator extends AbstractAutoProxyCreator {
+
+        private final MethodInterceptor decisions = invocation -> {
+            if (invocation.getMethod().getName().equals("closeTrades")) {
+                exitDecided(System.nanoTime());
+            }
+            return invocation.proceed();
+        };
+
+        private final MethodInterceptor acknowledgements = invocation -> {
+            Object orderId = invocation.proceed();
+            if (orderId != null && invocation.getMethod().getName().equals("placeOrder")
+                    && TradingService.TRANSACTION_SELL.equals(invocation.getArguments()[1])) {
+                exitAcked((String) invocation.getArguments()[0], System.nanoTime());
+            }
+            return orderId;
+        };
+
+        private final MethodInterceptor persistence = invocation -> {
+            Object result = invocation.proceed();
+            if (invocation.getMethod().getName().equals("save") && invocation.getArguments()[0] instanceof Trade trade) {
+                tradePersisted(trade, System.nanoTime());
+            }
+            return result;
+        };
+
+        @Override
+        protected Object[] getAdvicesAndAdvisorsForBean(Class<?> beanClass, String beanName, TargetSource source) {
+            if (TradingService.class.isAssignableFrom(beanClass)) {
+                return new Object[]{decisions};
+            }
+            if (KiteService.class.isAssignableFrom(beanClass)) {
+                return new Object[]{acknowledgements};
+            }
+            if (TradeRepository.class.isAssignableFrom(beanClass)) {
+                return new Object[]{persistence};
+            }
+            return DO_NOT_PROXY;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.tradingbot.service;
+
+import com.tradingbot.backtest.TickSource;
+import com.zerodhatech.models.Tick;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Stands in for the KiteTicker websocket: replays recorded ticks into
+ * {@link KiteTickerService#processTicks}, one frame per exchange timestamp, as the ticker
+ * callback thread would.
+ * <p>
+ * Frames are paced to the recorded timestamps sped up by {@code rate}, so a rate of 100 replays a
+ * session a hundred times faster than it traded; a rate of zero or less replays without pausing.
+ * Pacing is absolute from the first frame, so a late frame does not delay the ones after it.
+ */
+public final class FakeTickerFeed {
+
+    /**
+     * Sees each frame on the feed thread just before it is delivered.
+     */
+    @FunctionalInterface
+    public interface FrameListener {
+
+        /**
+         * @return {@code false} to stop the replay without delivering this frame
+         */
+        boolean beforeFrame(List<Tick> frame);
+    }
+
+    private final KiteTickerService kiteTickerService;
+    private final double rate;
+
+    public FakeTickerFeed(KiteTickerService kiteTickerService, double rate) {
+        this.kiteTickerService = kiteTickerService;
+        this.rate = rate;
+    }
+
+    /**
+     * Replays a source to the end, or until the listener stops it, on the calling thread.
+     *
+     * @return the number of frames delivered
+     */
+    public long replay(TickSource source, FrameListener listener) throws IOException {
+        long frames = 0;
+        long firstTimestamp = Long.MIN_VALUE;
+        long startedAt = 0L;
+        List<Tick> frame = new ArrayList<>();
+        long frameTime = Long.MIN_VALUE;
+        boolean more = source.next();
+        while (more || !frame.isEmpty()) {
+            if (more && (frame.isEmpty() || source.timestamp() == frameTime)) {
+                frameTime = source.timestamp();
+                frame.add(toTick(source));
+                more = source.next();
+                continue;
+            }
+            if (firstTimestamp == Long.MIN_VALUE) {
+                firstTimestamp = frameTime;
+                startedAt = System.nanoTime();
+            }
+            pace(startedAt, frameTime - firstTimestamp);
+            if (!listener.beforeFrame(frame)) {
+                break;
+            }
+            kiteTickerService.processTicks(frame);
+            frames++;
+            frame = new ArrayList<>();
+        }
+        return frames;
+    }
+
+    private void pace(long startedAt, long elapsedMillis) {
+        if (rate <= 0) {
+            return;
+        }
+        long due = startedAt + (long) (elapsedMillis * 1_000_000L / rate);
+        long wait;
+        while ((wait = due - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+
+    private static Tick toTick(TickSource source) {
+        Tick tick = new Tick();
+        tick.setInstrumentToken(source.token());
+        tick.setLastTradedPrice(source.pricePaise() / 100.0);
+        tick.setTickTimestamp(new Date(source.timestamp()));
+        return tick;
+    }
+}
@@ -0,0 +1,67 @@
+package com.tradingbot.archive;
+
+import com.tradingbot.backtest.CsvTickSource;
+import com.tradingbot.backtest.TickMerger;
+import com.tradingbot.backtest.TickSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts recorded CSV tick files into one tick archive.
+ * <p>
+ * Usage: {@code TickArchiveConverter <session-date> <output.tka> <input.csv>...}. Times of day in
+ * the CSV files are placed on the session date, as in a backtest.
+ */
+public final class TickArchiveConverter {
+
+    private TickArchiveConverter() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: TickArchiveConverter <session-date> <output" + TickArchiveFormat.EXTENSION
+                    + "> <input.csv>...");
+            System.exit(2);
+        }
+        LocalDate sessionDate = LocalDate.parse(args[0]);
+        Path output = Path.of(args[1]);
+        List<Path> inputs = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) {
+            inputs.add(Path.of(args[i]));
+        }
+        long started = System.nanoTime();
+        long ticks = convert(inputs, sessionDate, output);
+        long inputBytes = 0;
+        for (Path input : inputs) {
+            inputBytes += Files.size(input);
+        }
+        long outputBytes = Files.size(output);
+        System.out.printf("Wrote %d ticks to %s in %d ms: %d -> %d bytes (%.1fx)%n", ticks, output,
+                (System.nanoTime() - started) / 1_000_000, inputBytes, outputBytes, (double) inputBytes / outputBytes);
+    }
+
+    /**
+     * Merges the CSV files in time order and writes them to one archive.
+     *
+     * @return the number of ticks written
+     */
+    public static long convert(List<Path> inputs, LocalDate sessionDate, Path output) throws IOException {
+        List<TickSource> sources = new ArrayList<>(inputs.size());
+        try {
+            for (Path input : inputs) {
+                sources.add(CsvTickSource.open(input, sessionDate));
+            }
+        } catch (IOException | RuntimeException e) {
+            for (TickSource source : sources) {
+                source.close();
+            }
+            throw e;
+        }
+        return TickArchiveWriter.convert(new TickMerger(sources), output, TickArchiveWriter.DEFAULT_BLOCK_TICKS);
+    }
+}
@@ -0,0 +1,61 @@
+package com.tradingbot.archive;
+
+/**
+ * Layout of the columnar tick archive ({@code .tka}).
+ * <p>
+ * An archive is a header, a run of compressed blocks and a block index at the end. A block holds
+ * up to {@code blockTicks} consecutive ticks of a single token, stored as two columns:
+ * <ul>
+ *   <li>timestamps as zigzag varints of the delta-of-delta, starting from the block's first
+ *       timestamp kept in the index, so a steady feed costs one byte per tick;</li>
+ *   <li>prices as a zigzag varint of the first price followed by zigzag varint deltas, in units
+ *       of the tick size when every price in the block is on the tick grid and in paise otherwise.</li>
+ * </ul>
+ * The columns are then deflated when that makes the block smaller. The index records, per block,
+ * its token, time range, position and encoding, so a reader can pick out tokens and time windows
+ * without decoding anything else.
+ *
+ * <pre>
+ * header (32): 0 magic  4 version  8 blockCount  12 reserved  16 indexOffset  24 tickCount
+ * index entry (56): 0 token  8 firstTime  16 lastTime  24 offset  32 storedBytes  36 rawBytes
+ *                   40 ticks  44 priceUnit  48 flags  52 reserved
+ * </pre>
+ * All numbers are little-endian; times are epoch millis and prices paise.
+ */
+public final class TickArchiveFormat {
+
+    static final int MAGIC = 0x31414B54; // "TKA1" little-endian
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    static final int INDEX_ENTRY_BYTES = 56;
+    static final int FLAG_DEFLATED = 1;
+
+    static final int H_MAGIC = 0;
+    static final int H_VERSION = 4;
+    static final int H_BLOCK_COUNT = 8;
+    static final int H_INDEX_OFFSET = 16;
+    static final int H_TICK_COUNT = 24;
+
+    static final int I_TOKEN = 0;
+    static final int I_FIRST_TIME = 8;
+    static final int I_LAST_TIME = 16;
+    static final int I_OFFSET = 24;
+    static final int I_STORED_BYTES = 32;
+    static final int I_RAW_BYTES = 36;
+    static final int I_TICKS = 40;
+    static final int I_PRICE_UNIT = 44;
+    static final int I_FLAGS = 48;
+
+    public static final String EXTENSION = ".tka";
+
+    private TickArchiveFormat() {
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,224 @@
+package com.tradingbot.archive;
+
+import com.tradingbot.backtest.TickMerger;
+import com.tradingbot.backtest.TickSource;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static com.tradingbot.archive.TickArchiveFormat.*;
+
+/**
+ * Streams a columnar tick archive in time order; see {@link TickArchiveFormat}.
+ * <p>
+ * The file is memory-mapped and each token is read block by block: a block is inflated and its
+ * columns decoded into reusable primitive arrays, which are then walked without further work. The
+ * per-token streams are merged by timestamp with a {@link TickMerger}, so only one block per token
+ * is decoded at a time however large the archive is.
+ */
+public final class TickArchiveReader implements TickSource {
+
+    private final MappedByteBuffer file;
+    private final long tickCount;
+    private final long[] tokens;
+    private final TickMerger merged;
+    private final Inflater inflater = new Inflater(true);
+    private byte[] stored = new byte[0];
+    private byte[] raw = new byte[0];
+
+    private TickArchiveReader(MappedByteBuffer file) throws IOException {
+        this.file = file;
+        if (file.getInt(H_MAGIC) != MAGIC || file.getInt(H_VERSION) != VERSION) {
+            throw new IOException("Not a tick archive");
+        }
+        this.tickCount = file.getLong(H_TICK_COUNT);
+        int blockCount = file.getInt(H_BLOCK_COUNT);
+        int indexOffset = (int) file.getLong(H_INDEX_OFFSET);
+        Map<Long, List<Integer>> blocksByToken = new LinkedHashMap<>();
+        for (int i = 0; i < blockCount; i++) {
+            int entry = indexOffset + i * INDEX_ENTRY_BYTES;
+            blocksByToken.computeIfAbsent(file.getLong(entry + I_TOKEN), t -> new ArrayList<>()).add(entry);
+        }
+        List<TokenCursor> cursors = new ArrayList<>(blocksByToken.size());
+        this.tokens = new long[blocksByToken.size()];
+        int t = 0;
+        for (Map.Entry<Long, List<Integer>> token : blocksByToken.entrySet()) {
+            tokens[t++] = token.getKey();
+            cursors.add(new TokenCursor(token.getKey(), token.getValue().stream().mapToInt(Integer::intValue).toArray()));
+        }
+        this.merged = new TickMerger(cursors);
+    }
+
+    public static TickArchiveReader open(Path archive) throws IOException {
+        try (FileChannel channel = FileChannel.open(archive, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Tick archive larger than 2 GB: " + archive);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            return new TickArchiveReader(mapped);
+        }
+    }
+
+    /** Tokens in the archive, in the order their first block was written. */
+    public long[] tokens() {
+        return tokens.clone();
+    }
+
+    public long tickCount() {
+        return tickCount;
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        return merged.next();
+    }
+
+    @Override
+    public long token() {
+        return merged.token();
+    }
+
+    @Override
+    public long timestamp() {
+        return merged.timestamp();
+    }
+
+    @Override
+    public long pricePaise() {
+        return merged.pricePaise();
+    }
+
+    @Override
+    public void close() {
+        inflater.end();
+    }
+
+    /**
+     * Decodes one block into the cursor's columns and returns its tick count.
+     */
+    private int decode(int entry, long[] timestamps, long[] prices) throws IOException {
+        int ticks = file.getInt(entry + I_TICKS);
+        int storedBytes = file.getInt(entry + I_STORED_BYTES);
+        int rawBytes = file.getInt(entry + I_RAW_BYTES);
+        int offset = (int) file.getLong(entry + I_OFFSET);
+        if (stored.length < storedBytes) {
+            stored = new byte[storedBytes];
+        }
+        file.get(offset, stored, 0, storedBytes);
+        byte[] columns = stored;
+        if ((file.getInt(entry + I_FLAGS) & FLAG_DEFLATED) != 0) {
+            if (raw.length < rawBytes) {
+                raw = new byte[rawBytes];
+            }
+            inflater.reset();
+            inflater.setInput(stored, 0, storedBytes);
+            try {
+                if (inflater.inflate(raw, 0, rawBytes) != rawBytes) {
+                    throw new IOException("Truncated tick archive block at " + offset);
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupt tick archive block at " + offset, e);
+            }
+            columns = raw;
+        }
+
+        int at = 0;
+        long timestamp = file.getLong(entry + I_FIRST_TIME);
+        long delta = 0;
+        timestamps[0] = timestamp;
+        for (int i = 1; i < ticks; i++) {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = columns[at++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            delta += unzigzag(value);
+            timestamp += delta;
+            timestamps[i] = timestamp;
+        }
+        long unit = file.getInt(entry + I_PRICE_UNIT);
+        long price = 0;
+        for (int i = 0; i < ticks; i++) {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = columns[at++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            price += unzigzag(value);
+            prices[i] = price * unit;
+        }
+        return ticks;
+    }
+
+    /**
+     * Walks the blocks of one token in order.
+     */
+    private final class TokenCursor implements TickSource {
+        private final long token;
+        private final int[] entries;
+        private long[] timestamps = new long[0];
+        private long[] prices = new long[0];
+        private int block = -1;
+        private int size;
+        private int index;
+
+        TokenCursor(long token, int[] entries) {
+            this.token = token;
+            this.entries = entries;
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            if (++index < size) {
+                return true;
+            }
+            if (++block >= entries.length) {
+                return false;
+            }
+            int ticks = file.getInt(entries[block] + I_TICKS);
+            if (timestamps.length < ticks) {
+                timestamps = new long[ticks];
+                prices = new long[ticks];
+            }
+            size = decode(entries[block], timestamps, prices);
+            index = 0;
+            return size > 0;
+        }
+
+        @Override
+        public long token() {
+            return token;
+        }
+
+        @Override
+        public long timestamp() {
+            return timestamps[index];
+        }
+
+        @Override
+        public long pricePaise() {
+            return prices[index];
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.tradingbot.archive;
+
+import com.tradingbot.backtest.TickSource;
+import com.tradingbot.util.FixedPoint;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+import static com.tradingbot.archive.TickArchiveFormat.*;
+
+/**
+ * Writes a columnar tick archive; see {@link TickArchiveFormat}.
+ * <p>
+ * Ticks are buffered per token and written out as a block whenever a token has {@code blockTicks}
+ * of them, so memory stays bounded by the number of tokens. Ticks of one token must arrive in time
+ * order; ticks of different tokens may interleave freely.
+ */
+public final class TickArchiveWriter implements Closeable {
+
+    public static final int DEFAULT_BLOCK_TICKS = 8192;
+
+    private final FileChannel channel;
+    private final int blockTicks;
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private final Map<Long, TokenBlock> open = new LinkedHashMap<>();
+    private final List<ByteBuffer> index = new ArrayList<>();
+    private final byte[] raw;
+    private final byte[] deflated;
+    private long position = HEADER_BYTES;
+    private long ticks;
+
+    public TickArchiveWriter(Path file, int blockTicks) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.blockTicks = blockTicks;
+        // Worst case is two ten-byte varints per tick.
+        this.raw = new byte[blockTicks * 20 + 20];
+        this.deflated = new byte[raw.length + raw.length / 100 + 64];
+    }
+
+    /**
+     * Copies every tick of the source into a new archive and closes both.
+     *
+     * @return the number of ticks written
+     */
+    public static long convert(TickSource source, Path archive, int blockTicks) throws IOException {
+        try (source; TickArchiveWriter writer = new TickArchiveWriter(archive, blockTicks)) {
+            while (source.next()) {
+                writer.append(source.token(), source.timestamp(), source.pricePaise());
+            }
+            return writer.ticks;
+        }
+    }
+
+    public void append(long token, long timestamp, long pricePaise) throws IOException {
+        TokenBlock block = open.computeIfAbsent(token, t -> new TokenBlock(t, blockTicks));
+        if (block.count > 0 && timestamp < block.timestamps[block.count - 1]) {
+            throw new IllegalArgumentException("Ticks of token " + token + " are out of time order at " + timestamp);
+        }
+        block.timestamps[block.count] = timestamp;
+        block.prices[block.count] = pricePaise;
+        if (++block.count == blockTicks) {
+            flush(block);
+        }
+        ticks++;
+    }
+
+    /**
+     * Writes the remaining blocks, the index and the header.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            for (TokenBlock block : open.values()) {
+                if (block.count > 0) {
+                    flush(block);
+                }
+            }
+            long indexOffset = position;
+            for (ByteBuffer entry : index) {
+                entry.flip();
+                write(entry);
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(H_MAGIC, MAGIC)
+                    .putInt(H_VERSION, VERSION)
+                    .putInt(H_BLOCK_COUNT, index.size())
+                    .putLong(H_INDEX_OFFSET, indexOffset)
+                    .putLong(H_TICK_COUNT, ticks);
+            channel.write(header, 0);
+        } finally {
+            deflater.end();
+            channel.close();
+        }
+    }
+
+    private void flush(TokenBlock block) throws IOException {
+        int n = block.count;
+        long[] timestamps = block.timestamps;
+        long[] prices = block.prices;
+        long unit = FixedPoint.TICK_PAISE;
+        for (int i = 0; i < n; i++) {
+            if (prices[i] % unit != 0) {
+                unit = 1;
+                break;
+            }
+        }
+
+        int length = 0;
+        long previousDelta = 0;
+        for (int i = 1; i < n; i++) {
+            long delta = timestamps[i] - timestamps[i - 1];
+            length = putVarLong(raw, length, zigzag(delta - previousDelta));
+            previousDelta = delta;
+        }
+        long previousPrice = 0;
+        for (int i = 0; i < n; i++) {
+            long price = prices[i] / unit;
+            length = putVarLong(raw, length, zigzag(price - previousPrice));
+            previousPrice = price;
+        }
+
+        deflater.reset();
+        deflater.setInput(raw, 0, length);
+        deflater.finish();
+        int compressed = deflater.deflate(deflated);
+        boolean useDeflated = deflater.finished() && compressed < length;
+        byte[] payload = useDeflated ? deflated : raw;
+        int stored = useDeflated ? compressed : length;
+
+        ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        entry.putLong(I_TOKEN, block.token)
+                .putLong(I_FIRST_TIME, timestamps[0])
+                .putLong(I_LAST_TIME, timestamps[n - 1])
+                .putLong(I_OFFSET, position)
+                .putInt(I_STORED_BYTES, stored)
+                .putInt(I_RAW_BYTES, length)
+                .putInt(I_TICKS, n)
+                .putInt(I_PRICE_UNIT, (int) unit)
+                .putInt(I_FLAGS, useDeflated ? FLAG_DEFLATED : 0);
+        entry.position(INDEX_ENTRY_BYTES);
+        index.add(entry);
+        write(ByteBuffer.wrap(payload, 0, stored));
+        block.count = 0;
+    }
+
+    private void write(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            position += channel.write(bytes, position);
+        }
+    }
+
+    private static int putVarLong(byte[] out, int at, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out[at++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[at++] = (byte) value;
+        return at;
+    }
+
+    private static final class TokenBlock {
+        private final long token;
+        private final long[] timestamps;
+        private final long[] prices;
+        private int count;
+
+        TokenBlock(long token, int capacity) {
+            this.token = token;
+            this.timestamps = new long[capacity];
+            this.prices = new long[capacity];
+        }
+    }
+}
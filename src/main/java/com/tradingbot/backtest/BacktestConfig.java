@@ -0,0 +1,40 @@
+package com.tradingbot.backtest;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalTime;
+
+/**
+ * Parameters of one backtest run. Prices are in paise; a limit of {@code Long.MAX_VALUE} is off.
+ */
+@Getter
+@Builder(toBuilder = true)
+public final class BacktestConfig {
+    /** Profit target per unit, as {@code TradingConfigDto.profitTarget}. */
+    @Builder.Default
+    private final long profitTargetPaise = Long.MAX_VALUE;
+    /** Stop loss per unit, as {@code TradingConfigDto.stopLoss}. */
+    @Builder.Default
+    private final long stopLossPaise = Long.MAX_VALUE;
+    @Builder.Default
+    private final long maxDailyLossPaise = Long.MAX_VALUE;
+    /** Quantity per leg. */
+    @Builder.Default
+    private final int quantity = 35;
+    /** Number of straddle legs; the first this many distinct tokens in the feed are traded. */
+    @Builder.Default
+    private final int legs = 2;
+    /** New straddles are only entered on these clock boundaries, like the strategy's schedule. */
+    @Builder.Default
+    private final int entryIntervalMinutes = 5;
+    @Builder.Default
+    private final LocalTime sessionStart = LocalTime.of(9, 15);
+    @Builder.Default
+    private final LocalTime sessionEnd = LocalTime.of(15, 30);
+    @Builder.Default
+    private final int slippageTicks = 0;
+    /** Whether to keep every round trip in the report; sweeps turn this off. */
+    @Builder.Default
+    private final boolean recordTrades = true;
+}
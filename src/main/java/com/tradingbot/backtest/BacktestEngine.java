@@ -0,0 +1,38 @@
+package com.tradingbot.backtest;
+
+import com.tradingbot.dto.BacktestReport;
+
+import java.io.IOException;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Replays recorded ticks through a {@link StraddleSimulation} as fast as they can be read.
+ * <p>
+ * Time is simulated: the clock is the timestamp of the tick being replayed, so a run does not
+ * depend on wall-clock time or thread scheduling and the same input always gives the same report.
+ */
+public final class BacktestEngine {
+
+    /** NSE trades in IST; the session window and entry boundaries are read in this zone. */
+    public static final ZoneId EXCHANGE_ZONE = ZoneOffset.ofHoursMinutes(5, 30);
+    static final long EXCHANGE_OFFSET_MILLIS = 19_800_000L;
+
+    private BacktestEngine() {
+    }
+
+    /**
+     * Runs the whole source and closes it.
+     */
+    public static BacktestReport run(TickSource source, BacktestConfig config) throws IOException {
+        StraddleSimulation simulation = new StraddleSimulation(config);
+        long started = System.nanoTime();
+        try (source) {
+            while (source.next()) {
+                simulation.onTick(source.token(), source.timestamp(), source.pricePaise());
+            }
+        }
+        simulation.finish();
+        return simulation.report(System.nanoTime() - started);
+    }
+}
@@ -0,0 +1,115 @@
+package com.tradingbot.backtest;
+
+import com.tradingbot.util.FixedPoint;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * Streams ticks from a {@code timestamp,instrument_token,last_traded_price} CSV file, one line at
+ * a time.
+ * <p>
+ * The timestamp column holds either epoch millis or a time of day such as {@code 09:15:00}; a time
+ * of day is placed on the session date given at construction, in exchange time. A header line is
+ * skipped.
+ */
+public final class CsvTickSource implements TickSource {
+
+    private final BufferedReader reader;
+    private final long sessionStartMillis;
+    private long token;
+    private long timestamp;
+    private long pricePaise;
+
+    public CsvTickSource(InputStream in, LocalDate sessionDate) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII), 1 << 16);
+        this.sessionStartMillis = sessionDate.atStartOfDay(BacktestEngine.EXCHANGE_ZONE).toInstant().toEpochMilli();
+    }
+
+    public static CsvTickSource open(Path file, LocalDate sessionDate) throws IOException {
+        return new CsvTickSource(Files.newInputStream(file), sessionDate);
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty() || !Character.isDigit(line.charAt(0))) {
+                continue;
+            }
+            int first = line.indexOf(',');
+            int second = line.indexOf(',', first + 1);
+            if (first < 0 || second < 0) {
+                throw new IOException("Malformed tick line: " + line);
+            }
+            int colon = line.indexOf(':');
+            timestamp = colon >= 0 && colon < first
+                    ? sessionStartMillis + millisOfDay(line, first)
+                    : Long.parseLong(line.substring(0, first).trim());
+            token = Long.parseLong(line.substring(first + 1, second).trim());
+            pricePaise = FixedPoint.toPaise(Double.parseDouble(line.substring(second + 1).trim()));
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Parses {@code H:mm:ss} with optional fractional seconds from {@code line[0, end)} without
+     * allocating.
+     */
+    private static long millisOfDay(String line, int end) throws IOException {
+        long seconds = 0;
+        long value = 0;
+        long fraction = 0;
+        int fractionDigits = -1;
+        for (int i = 0; i < end; i++) {
+            char c = line.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (fractionDigits < 0) {
+                    value = value * 10 + (c - '0');
+                } else if (fractionDigits < 3) {
+                    fraction = fraction * 10 + (c - '0');
+                    fractionDigits++;
+                }
+            } else if (c == ':' && fractionDigits < 0) {
+                seconds = (seconds + value) * 60;
+                value = 0;
+            } else if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else if (c != ' ') {
+                throw new IOException("Malformed tick time: " + line.substring(0, end));
+            }
+        }
+        while (fractionDigits >= 0 && fractionDigits < 3) {
+            fraction *= 10;
+            fractionDigits++;
+        }
+        return (seconds + value) * 1000 + fraction;
+    }
+
+    @Override
+    public long token() {
+        return token;
+    }
+
+    @Override
+    public long timestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public long pricePaise() {
+        return pricePaise;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
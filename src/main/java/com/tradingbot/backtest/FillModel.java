@@ -0,0 +1,32 @@
+package com.tradingbot.backtest;
+
+import com.tradingbot.util.FixedPoint;
+
+/**
+ * Turns the reference price of a simulated market order into its fill price, standing in for
+ * the exchange when orders are not sent to Kite.
+ */
+public interface FillModel {
+
+    long buyFill(long referencePaise);
+
+    long sellFill(long referencePaise);
+
+    /**
+     * Fills every order the given number of ticks worse than the reference price.
+     */
+    static FillModel slippage(int ticks) {
+        long slip = ticks * FixedPoint.TICK_PAISE;
+        return new FillModel() {
+            @Override
+            public long buyFill(long referencePaise) {
+                return referencePaise + slip;
+            }
+
+            @Override
+            public long sellFill(long referencePaise) {
+                return Math.max(FixedPoint.TICK_PAISE, referencePaise - slip);
+            }
+        };
+    }
+}
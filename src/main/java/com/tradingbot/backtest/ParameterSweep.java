@@ -0,0 +1,246 @@
+package com.tradingbot.backtest;
+
+import com.tradingbot.dto.BacktestReport;
+import com.tradingbot.util.FixedPoint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Evaluates many profit target / stop loss pairs over one {@link TickTape} in parallel.
+ * <p>
+ * The tape is shared read-only by every worker and each candidate gets its own
+ * {@link StraddleSimulation}, so candidates run independently on a fork-join pool with no
+ * coordination beyond writing their report into their own result slot. Candidates are generated
+ * on the tick grid, as a full grid, a seeded random sample, or by repeatedly refining a grid
+ * around the best candidate so far.
+ */
+public final class ParameterSweep {
+
+    public enum Mode {
+        GRID, RANDOM, ADAPTIVE
+    }
+
+    public enum Objective {
+        PNL(Comparator.comparingLong(BacktestReport::getPnlPaise).reversed()),
+        DRAWDOWN(Comparator.comparingLong(BacktestReport::getMaxDrawdownPaise)
+                .thenComparing(Comparator.comparingLong(BacktestReport::getPnlPaise).reversed())),
+        HIT_RATE(Comparator.comparingDouble(BacktestReport::getHitRate).reversed()
+                .thenComparing(Comparator.comparingLong(BacktestReport::getPnlPaise).reversed())),
+        PNL_TO_DRAWDOWN(Comparator.comparingDouble(
+                (BacktestReport r) -> (double) r.getPnlPaise() / Math.max(1L, r.getMaxDrawdownPaise())).reversed());
+
+        private final Comparator<BacktestReport> order;
+
+        Objective(Comparator<BacktestReport> order) {
+            this.order = order.thenComparingLong(BacktestReport::getProfitTargetPaise)
+                    .thenComparingLong(BacktestReport::getStopLossPaise);
+        }
+
+        public Comparator<BacktestReport> order() {
+            return order;
+        }
+    }
+
+    /** Rounds of refinement in {@link Mode#ADAPTIVE}. */
+    private static final int ADAPTIVE_ROUNDS = 4;
+    /** Points per axis in each refinement round. */
+    private static final int ADAPTIVE_POINTS = 5;
+    /** Upper bound on candidates in one evaluation, to keep a mistyped range from exhausting memory. */
+    static final int MAX_CANDIDATES = 1_000_000;
+
+    private final ForkJoinPool pool;
+
+    public ParameterSweep(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Runs every candidate and returns the reports ranked by the objective, best first.
+     *
+     * @param base      settings shared by all candidates; target and stop are overridden
+     * @param target    range of profit targets, in paise
+     * @param stop      range of stop losses, in paise
+     * @param samples   candidates to draw in {@link Mode#RANDOM}
+     */
+    public List<BacktestReport> run(TickTape tape, BacktestConfig base, Mode mode, Range target, Range stop,
+                                    int samples, long seed, Objective objective) {
+        BacktestConfig config = base.toBuilder().recordTrades(false).build();
+        List<BacktestReport> results = new ArrayList<>();
+        switch (mode) {
+            case GRID -> results.addAll(evaluate(tape, config, grid(target, stop)));
+            case RANDOM -> results.addAll(evaluate(tape, config, random(target, stop, samples, seed)));
+            case ADAPTIVE -> results.addAll(adaptive(tape, config, target, stop, objective));
+        }
+        results.sort(objective.order());
+        return results;
+    }
+
+    /**
+     * Runs the given candidates in parallel; {@code targets[i]} pairs with {@code stops[i]}.
+     */
+    public List<BacktestReport> evaluate(TickTape tape, BacktestConfig config, long[][] candidates) {
+        BacktestReport[] reports = new BacktestReport[candidates[0].length];
+        pool.invoke(new Slice(tape, config, candidates[0], candidates[1], reports, 0, reports.length));
+        return Arrays.asList(reports);
+    }
+
+    static long[][] grid(Range target, Range stop) {
+        long[] targets = target.values();
+        long[] stops = stop.values();
+        checkCandidates((long) targets.length * stops.length);
+        long[][] candidates = new long[2][targets.length * stops.length];
+        int n = 0;
+        for (long t : targets) {
+            for (long s : stops) {
+                candidates[0][n] = t;
+                candidates[1][n] = s;
+                n++;
+            }
+        }
+        return candidates;
+    }
+
+    static long[][] random(Range target, Range stop, int samples, long seed) {
+        checkCandidates(samples);
+        SplittableRandom random = new SplittableRandom(seed);
+        long[][] candidates = new long[2][samples];
+        for (int i = 0; i < samples; i++) {
+            candidates[0][i] = target.sample(random);
+            candidates[1][i] = stop.sample(random);
+        }
+        return candidates;
+    }
+
+    private List<BacktestReport> adaptive(TickTape tape, BacktestConfig config, Range target, Range stop,
+                                          Objective objective) {
+        List<BacktestReport> all = new ArrayList<>(evaluate(tape, config, grid(target, stop)));
+        Set<Long> seen = new HashSet<>();
+        all.forEach(r -> seen.add(key(r.getProfitTargetPaise(), r.getStopLossPaise())));
+        Range t = target;
+        Range s = stop;
+        for (int round = 0; round < ADAPTIVE_ROUNDS; round++) {
+            BacktestReport best = all.stream().min(objective.order()).orElseThrow();
+            t = t.around(best.getProfitTargetPaise(), ADAPTIVE_POINTS);
+            s = s.around(best.getStopLossPaise(), ADAPTIVE_POINTS);
+            long[][] candidates = grid(t, s);
+            int fresh = 0;
+            for (int i = 0; i < candidates[0].length; i++) {
+                if (seen.add(key(candidates[0][i], candidates[1][i]))) {
+                    candidates[0][fresh] = candidates[0][i];
+                    candidates[1][fresh] = candidates[1][i];
+                    fresh++;
+                }
+            }
+            if (fresh == 0) {
+                break;
+            }
+            all.addAll(evaluate(tape, config, new long[][]{
+                    Arrays.copyOf(candidates[0], fresh), Arrays.copyOf(candidates[1], fresh)}));
+        }
+        return all;
+    }
+
+    private static void checkCandidates(long count) {
+        if (count < 1 || count > MAX_CANDIDATES) {
+            throw new IllegalArgumentException("Sweep must have between 1 and " + MAX_CANDIDATES
+                    + " candidates, got " + count);
+        }
+    }
+
+    private static long key(long target, long stop) {
+        return (target << 32) ^ stop;
+    }
+
+    /**
+     * An inclusive range of prices on the tick grid, in paise.
+     */
+    public static final class Range {
+        private final long from;
+        private final long to;
+        private final long step;
+
+        public Range(long from, long to, long step) {
+            if (from <= 0 || to < from || step <= 0) {
+                throw new IllegalArgumentException("Invalid range " + from + ".." + to + " step " + step);
+            }
+            this.from = snap(from);
+            this.to = Math.max(this.from, snap(to));
+            this.step = Math.max(FixedPoint.TICK_PAISE, snap(step));
+        }
+
+        long[] values() {
+            checkCandidates((to - from) / step + 1);
+            long[] values = new long[(int) ((to - from) / step) + 1];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = from + i * step;
+            }
+            return values;
+        }
+
+        long sample(SplittableRandom random) {
+            return from + random.nextLong((to - from) / FixedPoint.TICK_PAISE + 1) * FixedPoint.TICK_PAISE;
+        }
+
+        /**
+         * A finer range centred on {@code centre}: one current step either side, in the given points.
+         */
+        Range around(long centre, int points) {
+            long finer = Math.max(FixedPoint.TICK_PAISE, snap(2 * step / (points - 1)));
+            long low = Math.max(FixedPoint.TICK_PAISE, centre - step);
+            return new Range(low, centre + step, finer);
+        }
+
+        private static long snap(long paise) {
+            return Math.max(FixedPoint.TICK_PAISE, Math.round((double) paise / FixedPoint.TICK_PAISE) * FixedPoint.TICK_PAISE);
+        }
+    }
+
+    @SuppressWarnings("serial") // Fork/join tasks are never serialized
+    private static final class Slice extends RecursiveAction {
+        private final TickTape tape;
+        private final BacktestConfig config;
+        private final long[] targets;
+        private final long[] stops;
+        private final BacktestReport[] reports;
+        private final int from;
+        private final int to;
+
+        Slice(TickTape tape, BacktestConfig config, long[] targets, long[] stops, BacktestReport[] reports,
+              int from, int to) {
+            this.tape = tape;
+            this.config = config;
+            this.targets = targets;
+            this.stops = stops;
+            this.reports = reports;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Slice(tape, config, targets, stops, reports, from, mid),
+                        new Slice(tape, config, targets, stops, reports, mid, to));
+                return;
+            }
+            if (to > from) {
+                StraddleSimulation simulation = new StraddleSimulation(config.toBuilder()
+                        .profitTargetPaise(targets[from])
+                        .stopLossPaise(stops[from])
+                        .build());
+                long started = System.nanoTime();
+                tape.replay(simulation);
+                reports[from] = simulation.report(System.nanoTime() - started);
+            }
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.tradingbot.backtest;
+
+import com.tradingbot.dto.BacktestReport;
+import com.tradingbot.dto.BacktestTrade;
+import com.tradingbot.entity.Trade;
+import com.tradingbot.strategy.ExitThresholds;
+import com.tradingbot.util.FixedPoint;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code BuyStraddleStrategy} replayed in simulated time.
+ * <p>
+ * Every leg is bought on the first entry boundary at which all legs have a price and the day's
+ * loss limit is not reached. Exits use the strategy's own {@link ExitThresholds}: when one leg
+ * reaches its target or stop, that leg is sold at the tick price and every other leg at its last
+ * price, and the next straddle waits for the following entry boundary. Fills come from a
+ * {@link FillModel} in place of Kite.
+ * <p>
+ * The simulation is fed one tick at a time and is not thread-safe; parallel runs each use their own.
+ */
+public final class StraddleSimulation {
+
+    private static final long DAY_MILLIS = 86_400_000L;
+
+    private final BacktestConfig config;
+    private final FillModel fillModel;
+    private final long intervalMillis;
+    private final long sessionStartMillis;
+    private final long sessionEndMillis;
+
+    private final long[] tokens;
+    private final long[] lastPaise;
+    private int legsSeen;
+    private final Trade[] open;
+    private final ExitThresholds[] exits;
+    private final long[] entryPaise;
+    private long entryTime;
+    private boolean positionOpen;
+
+    private long nextEntryAt = Long.MIN_VALUE;
+    private long day = Long.MIN_VALUE;
+    private long dayRealizedPaise;
+    private long realizedPaise;
+    private long peakEquityPaise;
+    private long maxDrawdownPaise;
+    private int trades;
+    private int wins;
+    private int losses;
+    private long ticks;
+    private long lastTimestamp;
+    private final List<BacktestTrade> tradeList;
+
+    public StraddleSimulation(BacktestConfig config) {
+        this.config = config;
+        this.fillModel = FillModel.slippage(config.getSlippageTicks());
+        this.intervalMillis = config.getEntryIntervalMinutes() * 60_000L;
+        this.sessionStartMillis = config.getSessionStart().toSecondOfDay() * 1000L;
+        this.sessionEndMillis = config.getSessionEnd().toSecondOfDay() * 1000L;
+        int legs = config.getLegs();
+        this.tokens = new long[legs];
+        this.lastPaise = new long[legs];
+        this.open = new Trade[legs];
+        this.exits = new ExitThresholds[legs];
+        this.entryPaise = new long[legs];
+        this.tradeList = config.isRecordTrades() ? new ArrayList<>() : List.of();
+    }
+
+    public void onTick(long token, long timestamp, long pricePaise) {
+        ticks++;
+        lastTimestamp = timestamp;
+        if (nextEntryAt == Long.MIN_VALUE) {
+            nextEntryAt = nextBoundaryAfter(timestamp - 1);
+        }
+        int leg = legOf(token);
+        if (leg < 0) {
+            return;
+        }
+        lastPaise[leg] = pricePaise;
+        long localMillis = timestamp + BacktestEngine.EXCHANGE_OFFSET_MILLIS;
+        rollDay(Math.floorDiv(localMillis, DAY_MILLIS));
+
+        if (positionOpen) {
+            ExitThresholds exit = exits[leg];
+            if (exit.isTriggered(pricePaise)) {
+                close(timestamp, pricePaise >= exit.getUpperPaise() ? "TARGET" : "STOP");
+            } else {
+                markEquity();
+            }
+        } else if (timestamp >= nextEntryAt) {
+            tryEnter(timestamp, Math.floorMod(localMillis, DAY_MILLIS));
+        }
+    }
+
+    /**
+     * Closes a straddle still open at the end of the data at the last prices.
+     */
+    public void finish() {
+        if (positionOpen) {
+            close(lastTimestamp, "END_OF_DATA");
+        }
+    }
+
+    public BacktestReport report(long elapsedNanos) {
+        return new BacktestReport(config.getProfitTargetPaise(), config.getStopLossPaise(), trades, wins, losses,
+                realizedPaise, maxDrawdownPaise, ticks, elapsedNanos, tradeList);
+    }
+
+    public long getRealizedPaise() {
+        return realizedPaise;
+    }
+
+    public long getMaxDrawdownPaise() {
+        return maxDrawdownPaise;
+    }
+
+    public int getTrades() {
+        return trades;
+    }
+
+    public int getWins() {
+        return wins;
+    }
+
+    private int legOf(long token) {
+        for (int i = 0; i < legsSeen; i++) {
+            if (tokens[i] == token) {
+                return i;
+            }
+        }
+        if (legsSeen < tokens.length) {
+            tokens[legsSeen] = token;
+            return legsSeen++;
+        }
+        return -1;
+    }
+
+    private void rollDay(long today) {
+        if (today != day) {
+            day = today;
+            dayRealizedPaise = 0L;
+        }
+    }
+
+    private void tryEnter(long timestamp, long timeOfDay) {
+        if (legsSeen < tokens.length) {
+            return;
+        }
+        nextEntryAt = nextBoundaryAfter(timestamp);
+        if (timeOfDay < sessionStartMillis || timeOfDay >= sessionEndMillis
+                || dayRealizedPaise <= -config.getMaxDailyLossPaise()) {
+            return;
+        }
+        for (int i = 0; i < tokens.length; i++) {
+            long fill = fillModel.buyFill(lastPaise[i]);
+            entryPaise[i] = fill;
+            open[i] = Trade.builder()
+                    .type(Trade.TradeType.BUY)
+                    .quantity(config.getQuantity())
+                    .entryPrice(FixedPoint.toRupees(fill))
+                    .instrumentToken(Long.toString(tokens[i]))
+                    .strategy("BACKTEST")
+                    .build();
+            exits[i] = ExitThresholds.of(open[i], config.getProfitTargetPaise(), config.getStopLossPaise());
+        }
+        entryTime = timestamp;
+        positionOpen = true;
+        markEquity();
+    }
+
+    /**
+     * Sells every leg at its last price, which for the leg that triggered is the triggering tick.
+     */
+    private void close(long timestamp, String reason) {
+        long pnl = 0L;
+        long[] exitPaise = new long[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            exitPaise[i] = fillModel.sellFill(lastPaise[i]);
+            pnl += (exitPaise[i] - entryPaise[i]) * config.getQuantity();
+            open[i] = null;
+            exits[i] = null;
+        }
+        positionOpen = false;
+        realizedPaise += pnl;
+        dayRealizedPaise += pnl;
+        trades++;
+        if (pnl > 0) {
+            wins++;
+        } else if (pnl < 0) {
+            losses++;
+        }
+        if (config.isRecordTrades()) {
+            tradeList.add(new BacktestTrade(entryTime, timestamp, tokens.clone(), entryPaise.clone(), exitPaise,
+                    pnl, reason));
+        }
+        nextEntryAt = nextBoundaryAfter(timestamp);
+        markEquity();
+    }
+
+    private void markEquity() {
+        long equity = realizedPaise;
+        if (positionOpen) {
+            for (int i = 0; i < tokens.length; i++) {
+                equity += (lastPaise[i] - entryPaise[i]) * config.getQuantity();
+            }
+        }
+        if (equity > peakEquityPaise) {
+            peakEquityPaise = equity;
+        } else if (peakEquityPaise - equity > maxDrawdownPaise) {
+            maxDrawdownPaise = peakEquityPaise - equity;
+        }
+    }
+
+    private long nextBoundaryAfter(long timestamp) {
+        long local = timestamp + BacktestEngine.EXCHANGE_OFFSET_MILLIS;
+        return (Math.floorDiv(local, intervalMillis) + 1) * intervalMillis - BacktestEngine.EXCHANGE_OFFSET_MILLIS;
+    }
+}
@@ -0,0 +1,113 @@
+package com.tradingbot.backtest;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Merges several time-ordered {@link TickSource}s into one time-ordered stream.
+ * <p>
+ * The sources sit in a binary min-heap keyed by their current timestamp, so each tick costs
+ * O(log k) for k sources. Ties are broken by the order the sources were given in, which keeps a
+ * replay deterministic.
+ */
+public final class TickMerger implements TickSource {
+
+    private final TickSource[] sources;
+    private final int[] heap;
+    private int size;
+    private boolean started;
+
+    public TickMerger(List<? extends TickSource> sources) {
+        this.sources = sources.toArray(new TickSource[0]);
+        this.heap = new int[this.sources.length];
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        if (!started) {
+            started = true;
+            for (int i = 0; i < sources.length; i++) {
+                if (sources[i].next()) {
+                    heap[size] = i;
+                    siftUp(size++);
+                }
+            }
+        } else if (size > 0) {
+            if (!sources[heap[0]].next()) {
+                heap[0] = heap[--size];
+            }
+            siftDown(0);
+        }
+        return size > 0;
+    }
+
+    @Override
+    public long token() {
+        return sources[heap[0]].token();
+    }
+
+    @Override
+    public long timestamp() {
+        return sources[heap[0]].timestamp();
+    }
+
+    @Override
+    public long pricePaise() {
+        return sources[heap[0]].pricePaise();
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (TickSource source : sources) {
+            try {
+                source.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private boolean before(int a, int b) {
+        long ta = sources[a].timestamp();
+        long tb = sources[b].timestamp();
+        return ta < tb || (ta == tb && a < b);
+    }
+
+    private void siftUp(int slot) {
+        int source = heap[slot];
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (!before(source, heap[parent])) {
+                break;
+            }
+            heap[slot] = heap[parent];
+            slot = parent;
+        }
+        heap[slot] = source;
+    }
+
+    private void siftDown(int slot) {
+        if (size == 0) {
+            return;
+        }
+        int source = heap[slot];
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            int right = child + 1;
+            if (right < size && before(heap[right], heap[child])) {
+                child = right;
+            }
+            if (!before(heap[child], source)) {
+                break;
+            }
+            heap[slot] = heap[child];
+            slot = child;
+        }
+        heap[slot] = source;
+    }
+}
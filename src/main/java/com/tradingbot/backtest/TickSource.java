@@ -0,0 +1,28 @@
+package com.tradingbot.backtest;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Forward-only cursor over recorded ticks in timestamp order.
+ * <p>
+ * The current tick is read through primitive accessors after {@link #next()} returns {@code true},
+ * so replaying a source does not allocate a tick object per record.
+ */
+public interface TickSource extends Closeable {
+
+    /**
+     * Moves to the next tick.
+     *
+     * @return {@code false} when the source is exhausted
+     */
+    boolean next() throws IOException;
+
+    long token();
+
+    /** Exchange time of the current tick, in epoch millis. */
+    long timestamp();
+
+    /** Last traded price of the current tick, in paise. */
+    long pricePaise();
+}
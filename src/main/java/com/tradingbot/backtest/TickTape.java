@@ -0,0 +1,99 @@
+package com.tradingbot.backtest;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Time-ordered ticks held in memory as parallel primitive arrays.
+ * <p>
+ * A tape is loaded once and never modified afterwards, so any number of threads can replay it at
+ * once without copying or locking; see {@link ParameterSweep}.
+ */
+public final class TickTape {
+
+    private final long[] tokens;
+    private final long[] timestamps;
+    private final long[] prices;
+    private final int size;
+
+    private TickTape(long[] tokens, long[] timestamps, long[] prices, int size) {
+        this.tokens = tokens;
+        this.timestamps = timestamps;
+        this.prices = prices;
+        this.size = size;
+    }
+
+    /**
+     * Reads a source to the end and closes it.
+     */
+    public static TickTape load(TickSource source) throws IOException {
+        int capacity = 1 << 16;
+        long[] tokens = new long[capacity];
+        long[] timestamps = new long[capacity];
+        long[] prices = new long[capacity];
+        int size = 0;
+        try (source) {
+            while (source.next()) {
+                if (size == tokens.length) {
+                    int grown = tokens.length * 2;
+                    tokens = Arrays.copyOf(tokens, grown);
+                    timestamps = Arrays.copyOf(timestamps, grown);
+                    prices = Arrays.copyOf(prices, grown);
+                }
+                tokens[size] = source.token();
+                timestamps[size] = source.timestamp();
+                prices[size] = source.pricePaise();
+                size++;
+            }
+        }
+        return new TickTape(Arrays.copyOf(tokens, size), Arrays.copyOf(timestamps, size),
+                Arrays.copyOf(prices, size), size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Feeds every tick to the simulation and closes out the last straddle.
+     */
+    public void replay(StraddleSimulation simulation) {
+        for (int i = 0; i < size; i++) {
+            simulation.onTick(tokens[i], timestamps[i], prices[i]);
+        }
+        simulation.finish();
+    }
+
+    /**
+     * Returns a new cursor over the tape.
+     */
+    public TickSource cursor() {
+        return new TickSource() {
+            private int index = -1;
+
+            @Override
+            public boolean next() {
+                return ++index < size;
+            }
+
+            @Override
+            public long token() {
+                return tokens[index];
+            }
+
+            @Override
+            public long timestamp() {
+                return timestamps[index];
+            }
+
+            @Override
+            public long pricePaise() {
+                return prices[index];
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
@@ -0,0 +1,47 @@
+package com.tradingbot.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for the Kite REST connection pools.
+ * Maps properties with the prefix "kite.http"; each endpoint class gets its own pool and timeouts
+ * so slow bulk downloads cannot hold connections that order placement needs.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "kite.http")
+@Getter
+@Setter
+public class KiteHttpProperties {
+    private PoolConfig orders = new PoolConfig(8, 1_000, 3_000, 200);
+    private PoolConfig quotes = new PoolConfig(8, 1_000, 2_000, 500);
+    private PoolConfig instruments = new PoolConfig(2, 2_000, 60_000, 5_000);
+    private PoolConfig account = new PoolConfig(4, 1_000, 5_000, 2_000);
+
+    /**
+     * Connection pool and timeout budget for one endpoint class.
+     */
+    @Getter
+    @Setter
+    public static class PoolConfig {
+        private int maxConnections;
+        private long connectTimeoutMs;
+        private long responseTimeoutMs;
+        /** How long a request may wait for a free pooled connection. */
+        private long connectionRequestTimeoutMs;
+        private long keepAliveMs = 30_000;
+        private long idleEvictMs = 60_000;
+
+        public PoolConfig() {
+        }
+
+        PoolConfig(int maxConnections, long connectTimeoutMs, long responseTimeoutMs, long connectionRequestTimeoutMs) {
+            this.maxConnections = maxConnections;
+            this.connectTimeoutMs = connectTimeoutMs;
+            this.responseTimeoutMs = responseTimeoutMs;
+            this.connectionRequestTimeoutMs = connectionRequestTimeoutMs;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.tradingbot.controller;
+
+import com.tradingbot.backtest.BacktestConfig;
+import com.tradingbot.backtest.ParameterSweep;
+import com.tradingbot.dto.BacktestReport;
+import com.tradingbot.dto.SweepReport;
+import com.tradingbot.service.BacktestService;
+import com.tradingbot.util.FixedPoint;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Controller
+public class BacktestController {
+
+    private final BacktestService backtestService;
+
+    public BacktestController(BacktestService backtestService) {
+        this.backtestService = backtestService;
+    }
+
+    /**
+     * Replays recorded ticks through the straddle exit logic. Targets and stops are in rupees per
+     * unit, as on the trading form; omit {@code files} to use the configured defaults.
+     */
+    @GetMapping("/api/backtest")
+    @ResponseBody
+    public BacktestReport backtest(
+            @RequestParam BigDecimal profitTarget,
+            @RequestParam BigDecimal stopLoss,
+            @RequestParam(required = false) BigDecimal maxDailyLoss,
+            @RequestParam(defaultValue = "0") int slippageTicks,
+            @RequestParam(required = false) List<String> files,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date)
+            throws IOException {
+        BacktestConfig config = BacktestConfig.builder()
+                .profitTargetPaise(FixedPoint.toPaise(profitTarget))
+                .stopLossPaise(FixedPoint.toPaise(stopLoss))
+                .maxDailyLossPaise(maxDailyLoss != null ? FixedPoint.toPaise(maxDailyLoss) : Long.MAX_VALUE)
+                .slippageTicks(slippageTicks)
+                .build();
+        return backtestService.run(config, files, date != null ? date : LocalDate.now());
+    }
+
+    /**
+     * Ranks profit target / stop loss pairs over recorded ticks. Ranges are in rupees per unit and
+     * snapped to the tick grid; {@code samples} and {@code seed} only apply to {@code RANDOM}.
+     */
+    @GetMapping("/api/backtest/sweep")
+    @ResponseBody
+    public SweepReport sweep(
+            @RequestParam BigDecimal targetFrom,
+            @RequestParam BigDecimal targetTo,
+            @RequestParam(defaultValue = "0.5") BigDecimal targetStep,
+            @RequestParam BigDecimal stopFrom,
+            @RequestParam BigDecimal stopTo,
+            @RequestParam(defaultValue = "0.5") BigDecimal stopStep,
+            @RequestParam(defaultValue = "GRID") ParameterSweep.Mode mode,
+            @RequestParam(defaultValue = "PNL") ParameterSweep.Objective rankBy,
+            @RequestParam(defaultValue = "1000") int samples,
+            @RequestParam(defaultValue = "1") long seed,
+            @RequestParam(defaultValue = "20") int top,
+            @RequestParam(required = false) BigDecimal maxDailyLoss,
+            @RequestParam(defaultValue = "0") int slippageTicks,
+            @RequestParam(required = false) List<String> files,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date)
+            throws IOException {
+        BacktestConfig base = BacktestConfig.builder()
+                .maxDailyLossPaise(maxDailyLoss != null ? FixedPoint.toPaise(maxDailyLoss) : Long.MAX_VALUE)
+                .slippageTicks(slippageTicks)
+                .build();
+        ParameterSweep.Range target = new ParameterSweep.Range(FixedPoint.toPaise(targetFrom),
+                FixedPoint.toPaise(targetTo), FixedPoint.toPaise(targetStep));
+        ParameterSweep.Range stop = new ParameterSweep.Range(FixedPoint.toPaise(stopFrom),
+                FixedPoint.toPaise(stopTo), FixedPoint.toPaise(stopStep));
+        return backtestService.sweep(base, files, date != null ? date : LocalDate.now(), mode, target, stop,
+                samples, seed, rankBy, top);
+    }
+}
@@ -1,10 +1,15 @@
 package com.tradingbot.controller;
 
-import com.tradingbot.dto.AccountInfo;
+import com.tradingbot.dto.DashboardSnapshot;
+import com.tradingbot.dto.HttpPoolStats;
+import com.tradingbot.dto.MtmSnapshot;
+import com.tradingbot.dto.StrategyLoopStats;
 import com.tradingbot.dto.TradingConfigDto;
-import com.tradingbot.entity.Trade;
-import com.tradingbot.repository.TradeRepository;
+import com.tradingbot.service.DashboardSnapshotService;
+import com.tradingbot.service.KiteHttpClients;
+import com.tradingbot.service.KiteRateLimiter;
 import com.tradingbot.service.KiteService;
+import com.tradingbot.service.MtmEngine;
 import com.tradingbot.service.StrategyService;
 import com.tradingbot.service.TradingService;
 import com.tradingbot.strategy.StrategyType;
@@ -16,7 +21,6 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.ResponseBody;
 
-import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -24,18 +28,24 @@ import java.util.Map;
 @Controller
 public class DashboardController {
 
-    private static final int UPCOMING_EXPIRY_COUNT = 3;
-
     private final KiteService kiteService;
     private final TradingService tradingService;
-    private final TradeRepository tradeRepository;
+    private final DashboardSnapshotService dashboardSnapshotService;
     private final StrategyService strategyService;
+    private final KiteHttpClients httpClients;
+    private final KiteRateLimiter rateLimiter;
+    private final MtmEngine mtmEngine;
 
-    public DashboardController(KiteService kiteService, TradingService tradingService, TradeRepository tradeRepository, StrategyService strategyService) {
+    public DashboardController(KiteService kiteService, TradingService tradingService,
+                               DashboardSnapshotService dashboardSnapshotService, StrategyService strategyService,
+                               KiteHttpClients httpClients, KiteRateLimiter rateLimiter, MtmEngine mtmEngine) {
         this.kiteService = kiteService;
         this.tradingService = tradingService;
-        this.tradeRepository = tradeRepository;
+        this.dashboardSnapshotService = dashboardSnapshotService;
         this.strategyService = strategyService;
+        this.httpClients = httpClients;
+        this.rateLimiter = rateLimiter;
+        this.mtmEngine = mtmEngine;
     }
 
     @GetMapping("/dashboard")
@@ -68,24 +78,43 @@ public class DashboardController {
         return "Trading stopped";
     }
 
+    @GetMapping("/http-pool-stats")
+    @ResponseBody
+    public List<HttpPoolStats> httpPoolStats() {
+        return httpClients.poolStats();
+    }
+
+    @GetMapping("/strategy-loop-stats")
+    @ResponseBody
+    public List<StrategyLoopStats> strategyLoopStats() {
+        return strategyService.loopStats();
+    }
+
+    @GetMapping("/rate-limit-stats")
+    @ResponseBody
+    public Map<KiteRateLimiter.Lane, Long> rateLimitStats() {
+        return rateLimiter.shedCounts();
+    }
+
+    @GetMapping("/api/mtm")
+    @ResponseBody
+    public MtmSnapshot mtm() {
+        return mtmEngine.snapshot();
+    }
+
     private void populateDashboardModel(Model model) {
-        AccountInfo accountInfo = kiteService.getAccountInfo();
-        log.info("Account Info: UserName={}, TotalMargin={}, UserId={}",
-                accountInfo.getUserName(), accountInfo.getTotalMargin(), accountInfo.getUserId());
-
-        List<Trade> recentTrades = tradeRepository.findAll();
-        List<LocalDate> expiryDates = kiteService.getUpcomingExpiryDates(UPCOMING_EXPIRY_COUNT);
-        List<Map<String, Object>> orders = kiteService.fetchOrders();
-        Map<String, List<Map<String, Object>>> positions = kiteService.fetchPositions();
-
-        model.addAttribute("orders", orders != null ? orders : List.of());
-        model.addAttribute("dayPositions", positions != null ? positions.getOrDefault("day", List.of()) : List.of());
-        model.addAttribute("netPositions", positions != null ? positions.getOrDefault("net", List.of()) : List.of());
-
-        model.addAttribute("accountInfo", accountInfo);
-        model.addAttribute("recentTrades", recentTrades);
-        model.addAttribute("todaysPnL", tradingService.getTodaysPnL());
+        DashboardSnapshot snapshot = dashboardSnapshotService.getSnapshot();
+        Map<String, List<Map<String, Object>>> positions = snapshot.getPositions();
+
+        model.addAttribute("orders", snapshot.getOrders());
+        model.addAttribute("dayPositions", positions.getOrDefault("day", List.of()));
+        model.addAttribute("netPositions", positions.getOrDefault("net", List.of()));
+
+        model.addAttribute("accountInfo", snapshot.getAccountInfo());
+        model.addAttribute("recentTrades", snapshot.getRecentTrades());
+        model.addAttribute("totalTrades", snapshot.getTotalTrades());
+        model.addAttribute("todaysPnL", snapshot.getTodaysPnL());
         model.addAttribute("tradingActive", tradingService.isTradingActive());
-        model.addAttribute("expiryDates", expiryDates);
+        model.addAttribute("expiryDates", snapshot.getExpiryDates());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,34 @@
+package com.tradingbot.controller;
+
+import com.tradingbot.dto.TradeHistoryPage;
+import com.tradingbot.service.TradeHistoryService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.time.LocalDateTime;
+
+@Controller
+public class TradeHistoryController {
+
+    private final TradeHistoryService tradeHistoryService;
+
+    public TradeHistoryController(TradeHistoryService tradeHistoryService) {
+        this.tradeHistoryService = tradeHistoryService;
+    }
+
+    /**
+     * Returns trade history newest first. Omit the cursor for the first page, then pass the
+     * returned {@code nextBeforeTimestamp} and {@code nextBeforeId} to get the next one.
+     */
+    @GetMapping("/api/trades/history")
+    @ResponseBody
+    public TradeHistoryPage history(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeTimestamp,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(defaultValue = "50") int size) {
+        return tradeHistoryService.page(beforeTimestamp, beforeId, size);
+    }
+}
@@ -0,0 +1,35 @@
+package com.tradingbot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * DTO representing the outcome of one backtest run. Amounts are in paise.
+ */
+@Getter
+@AllArgsConstructor
+public final class BacktestReport {
+    private final long profitTargetPaise;
+    private final long stopLossPaise;
+    /** Straddle round trips. */
+    private final int trades;
+    private final int wins;
+    private final int losses;
+    private final long pnlPaise;
+    /** Largest peak-to-trough fall of realized plus unrealized P&L. */
+    private final long maxDrawdownPaise;
+    private final long ticks;
+    private final long elapsedNanos;
+    /** Empty when the run was configured not to record trades. */
+    private final List<BacktestTrade> tradeList;
+
+    public double getHitRate() {
+        return trades == 0 ? 0d : (double) wins / trades;
+    }
+
+    public double getTicksPerSecond() {
+        return elapsedNanos == 0 ? 0d : ticks * 1e9 / elapsedNanos;
+    }
+}
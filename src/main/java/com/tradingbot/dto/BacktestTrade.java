@@ -0,0 +1,20 @@
+package com.tradingbot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * DTO representing one simulated straddle round trip. Prices and P&L are in paise, times in epoch millis.
+ */
+@Getter
+@AllArgsConstructor
+public final class BacktestTrade {
+    private final long entryTime;
+    private final long exitTime;
+    private final long[] tokens;
+    private final long[] entryPaise;
+    private final long[] exitPaise;
+    private final long pnlPaise;
+    /** TARGET, STOP or END_OF_DATA. */
+    private final String exitReason;
+}
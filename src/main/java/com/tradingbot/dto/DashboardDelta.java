@@ -0,0 +1,37 @@
+package com.tradingbot.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO representing one pushed dashboard frame. Only values that changed since the previous frame
+ * are present; a {@code full} frame carries every current value.
+ */
+@Getter
+@Builder
+public final class DashboardDelta {
+    private final long sequence;
+    private final boolean full;
+    /** Last traded price by trading symbol of the open legs. */
+    private final Map<String, Double> ltps;
+    /** Mark-to-market P&L by order id of the open trades. */
+    private final Map<String, Double> tradePnl;
+    /** Realized plus open P&L for the day, or {@code null} when unchanged. */
+    private final Double dailyPnl;
+    /** Latest status by order id, from websocket order updates. */
+    private final Map<String, String> orderStatus;
+    /** Trading symbols of legs that closed since the previous frame. */
+    private final List<String> closedSymbols;
+    /** Order ids of trades that closed since the previous frame; their P&L is no longer live. */
+    private final List<String> closedOrderIds;
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return ltps.isEmpty() && tradePnl.isEmpty() && dailyPnl == null && orderStatus.isEmpty()
+                && closedSymbols.isEmpty() && closedOrderIds.isEmpty();
+    }
+}
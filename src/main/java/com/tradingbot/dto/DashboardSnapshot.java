@@ -0,0 +1,29 @@
+package com.tradingbot.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO representing the latest loaded state of every dashboard section.
+ * Immutable; a refreshed section produces a new snapshot.
+ */
+@Getter
+@Builder(toBuilder = true)
+public final class DashboardSnapshot {
+    private final AccountInfo accountInfo;
+    @Builder.Default
+    private final List<TradeHistoryItem> recentTrades = List.of();
+    private final long totalTrades;
+    @Builder.Default
+    private final List<LocalDate> expiryDates = List.of();
+    @Builder.Default
+    private final List<Map<String, Object>> orders = List.of();
+    @Builder.Default
+    private final Map<String, List<Map<String, Object>>> positions = Map.of();
+    private final BigDecimal todaysPnL;
+}
@@ -0,0 +1,17 @@
+package com.tradingbot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * DTO representing the utilization of one Kite REST connection pool.
+ */
+@Getter
+@AllArgsConstructor
+public final class HttpPoolStats {
+    private final String endpoint;
+    private final int leased;
+    private final int pending;
+    private final int available;
+    private final int max;
+}
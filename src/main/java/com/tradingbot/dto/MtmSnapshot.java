@@ -0,0 +1,47 @@
+package com.tradingbot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * DTO representing the unrealized mark-to-market of every open leg at one instant.
+ * All amounts are in paise.
+ */
+@Getter
+@AllArgsConstructor
+public final class MtmSnapshot {
+    private final List<Leg> legs;
+    private final List<Straddle> straddles;
+    /** Unrealized P&L of all open legs. */
+    private final long unrealizedPaise;
+    /** Realized P&L for the day plus {@link #unrealizedPaise}. */
+    private final long dayPaise;
+
+    /**
+     * One open leg. {@code ltpPaise} is {@code 0} until the first tick or cached price arrives.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static final class Leg {
+        private final String orderId;
+        private final String symbol;
+        private final long instrumentToken;
+        private final int quantity;
+        private final long entryPaise;
+        private final long ltpPaise;
+        private final long mtmPaise;
+    }
+
+    /**
+     * Legs entered together by one strategy run.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static final class Straddle {
+        private final String key;
+        private final List<String> orderIds;
+        private final long mtmPaise;
+    }
+}
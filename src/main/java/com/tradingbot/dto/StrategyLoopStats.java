@@ -0,0 +1,26 @@
+package com.tradingbot.dto;
+
+import com.tradingbot.strategy.StrategyEventLoop;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * DTO representing the queue of one strategy event loop.
+ */
+@Getter
+@AllArgsConstructor
+public final class StrategyLoopStats {
+    private final String strategy;
+    private final int capacity;
+    private final int depth;
+    /** Deepest the queue has been when an event was taken. */
+    private final int maxDepth;
+    private final long processed;
+    private final Map<StrategyEventLoop.Kind, Long> rejected;
+    /** Tokens with a tick waiting to be drained. */
+    private final int pendingTicks;
+    /** Ticks replaced by a newer tick on the same token before they were handled. */
+    private final long conflatedTicks;
+}
@@ -0,0 +1,23 @@
+package com.tradingbot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * DTO representing the ranked outcome of a parameter sweep.
+ */
+@Getter
+@AllArgsConstructor
+public final class SweepReport {
+    private final String mode;
+    private final String objective;
+    private final int combinations;
+    /** Ticks replayed per combination. */
+    private final int ticks;
+    private final long loadNanos;
+    private final long sweepNanos;
+    /** Best combinations first. */
+    private final List<BacktestReport> results;
+}
@@ -0,0 +1,27 @@
+package com.tradingbot.dto;
+
+import com.tradingbot.entity.Trade;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO representing one row of trade history, selected directly by JPQL without loading the entity.
+ */
+@Getter
+@AllArgsConstructor
+public final class TradeHistoryItem {
+    private final Long id;
+    private final String orderId;
+    private final String symbol;
+    private final Trade.TradeType type;
+    private final Integer quantity;
+    private final BigDecimal entryPrice;
+    private final BigDecimal exitPrice;
+    private final BigDecimal pnl;
+    private final Trade.TradeStatus status;
+    private final LocalDateTime entryTimestamp;
+    private final LocalDateTime exitTimestamp;
+}
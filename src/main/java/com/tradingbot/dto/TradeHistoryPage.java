@@ -0,0 +1,20 @@
+package com.tradingbot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO representing one page of trade history, newest first.
+ * Pass {@code nextBeforeTimestamp} and {@code nextBeforeId} back to fetch the following page;
+ * both are {@code null} on the last page.
+ */
+@Getter
+@AllArgsConstructor
+public final class TradeHistoryPage {
+    private final List<TradeHistoryItem> items;
+    private final LocalDateTime nextBeforeTimestamp;
+    private final Long nextBeforeId;
+}
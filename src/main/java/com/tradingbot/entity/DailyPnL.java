@@ -46,6 +46,12 @@ public final class DailyPnL {
     @Builder.Default
     private Boolean tradingStopped = false;
 
+    /**
+     * Optimistic lock version, so concurrent writers cannot silently overwrite each other.
+     */
+    @Version
+    private Long version;
+
     public DailyPnL(LocalDate date) {
         this.date = date;
         this.totalPnl = BigDecimal.ZERO; // Default value
@@ -13,7 +13,11 @@ import java.time.LocalDateTime;
  * Entity representing a trade in the trading system.
  */
 @Entity
-@Table(name = "trades")
+@Table(name = "trades", indexes = {
+        @Index(name = "idx_trades_status", columnList = "status"),
+        @Index(name = "idx_trades_entry_timestamp", columnList = "entry_timestamp, id"),
+        @Index(name = "idx_trades_exit_timestamp", columnList = "exit_timestamp")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -50,8 +54,8 @@ public final class Trade {
     @Builder.Default
     private TradeStatus status = TradeStatus.OPEN;
 
-    /** The timestamp when the position was entered. */
-    @Column(name = "entry_timestamp")
+    /** The timestamp when the position was entered. Never null; trade history pages on it. */
+    @Column(name = "entry_timestamp", nullable = false)
     @Builder.Default
     private LocalDateTime entryTimestamp = LocalDateTime.now();
 
@@ -75,6 +79,14 @@ public final class Trade {
         this.entryPrice = price;
         this.strategy = strategyStraddle;
         this.status = status;
+        this.entryTimestamp = LocalDateTime.now(); // Constructors skip the @Builder.Default initializer
+    }
+
+    @PrePersist
+    void defaultEntryTimestamp() {
+        if (entryTimestamp == null) {
+            entryTimestamp = LocalDateTime.now();
+        }
     }
 
     /** Enum representing the type of trade. */
@@ -0,0 +1,129 @@
+package com.tradingbot.event;
+
+import com.tradingbot.util.LongObjectTable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands ticks from the ticker thread to a slower consumer, keeping only the latest tick per token.
+ * <p>
+ * A tick overwrites whatever is still pending for its token, so the producer never waits and the
+ * buffer never holds more than one tick per token however bursty the feed is. Each overwritten tick
+ * is counted as conflated. The consumer is signalled once per batch: {@link #offer} returns
+ * {@code true} only for the tick that finds the buffer idle, and {@link #drain} re-arms the signal
+ * before it reads, so a tick that arrives during a drain is either read by it or signals again.
+ */
+public final class ConflatingTickBuffer {
+
+    /** Slots by token, copy-on-write. New slots are created under {@code this}. */
+    private final Map<Long, Slot> slots = new HashMap<>();
+    private volatile LongObjectTable<Slot> index = LongObjectTable.empty();
+    private final Queue<Slot> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean signalled = new AtomicBoolean();
+    private final AtomicLong conflated = new AtomicLong();
+
+    /**
+     * Stores the tick as the latest for its token.
+     *
+     * @return {@code true} when the consumer must be signalled to {@link #drain}
+     */
+    public boolean offer(long instrumentToken, double lastTradedPrice, long timestamp) {
+        Slot slot = index.get(instrumentToken);
+        if (slot == null) {
+            slot = createSlot(instrumentToken);
+        }
+        if (slot.set(lastTradedPrice, timestamp)) {
+            pending.add(slot);
+        } else {
+            conflated.incrementAndGet();
+        }
+        return !signalled.get() && signalled.compareAndSet(false, true);
+    }
+
+    /**
+     * Clears a signal that could not be delivered, so the next {@link #offer} signals again.
+     */
+    public void cancelSignal() {
+        signalled.set(false);
+    }
+
+    /**
+     * Delivers the latest pending tick of every token to the consumer.
+     *
+     * @return the number of ticks delivered
+     */
+    public int drain(TickListener consumer) {
+        signalled.set(false);
+        int delivered = 0;
+        Slot slot;
+        while ((slot = pending.poll()) != null) {
+            double price;
+            long timestamp;
+            synchronized (slot) {
+                price = slot.lastTradedPrice;
+                timestamp = slot.timestamp;
+                slot.dirty = false;
+            }
+            consumer.onTick(slot.instrumentToken, price, timestamp);
+            delivered++;
+        }
+        return delivered;
+    }
+
+    /**
+     * Ticks overwritten before the consumer read them.
+     */
+    public long getConflatedCount() {
+        return conflated.get();
+    }
+
+    /**
+     * Tokens with a tick the consumer has not read yet.
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    private synchronized Slot createSlot(long instrumentToken) {
+        Slot slot = slots.get(instrumentToken);
+        if (slot == null) {
+            slot = new Slot(instrumentToken);
+            slots.put(instrumentToken, slot);
+            index = LongObjectTable.of(slots);
+        }
+        return slot;
+    }
+
+    /**
+     * Latest tick of one token. The lock only pairs price with timestamp and is held for a few
+     * field writes, so the producer is never held up by the consumer's work.
+     */
+    private static final class Slot {
+        private final long instrumentToken;
+        private double lastTradedPrice;
+        private long timestamp;
+        private boolean dirty;
+
+        Slot(long instrumentToken) {
+            this.instrumentToken = instrumentToken;
+        }
+
+        /**
+         * @return {@code true} when the slot was clean and must be queued for the consumer
+         */
+        synchronized boolean set(double lastTradedPrice, long timestamp) {
+            this.lastTradedPrice = lastTradedPrice;
+            this.timestamp = timestamp;
+            if (dirty) {
+                return false;
+            }
+            dirty = true;
+            return true;
+        }
+    }
+}
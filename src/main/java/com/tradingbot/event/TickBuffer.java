@@ -0,0 +1,61 @@
+package com.tradingbot.event;
+
+import java.util.Arrays;
+
+/**
+ * Reusable, column-oriented batch of ticks.
+ * <p>
+ * The buffer is pre-sized for a full websocket frame and reset with {@link #clear()} between
+ * frames, so filling it does not allocate. It is not thread-safe and is meant to be owned by
+ * the single thread that receives ticks.
+ */
+public final class TickBuffer {
+
+    private long[] tokens;
+    private double[] prices;
+    private long[] timestamps;
+    private int size;
+
+    public TickBuffer(int capacity) {
+        this.tokens = new long[capacity];
+        this.prices = new double[capacity];
+        this.timestamps = new long[capacity];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void add(long instrumentToken, double lastTradedPrice, long timestamp) {
+        if (size == tokens.length) {
+            grow();
+        }
+        tokens[size] = instrumentToken;
+        prices[size] = lastTradedPrice;
+        timestamps[size] = timestamp;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long token(int index) {
+        return tokens[index];
+    }
+
+    public double price(int index) {
+        return prices[index];
+    }
+
+    public long timestamp(int index) {
+        return timestamps[index];
+    }
+
+    private void grow() {
+        int capacity = tokens.length * 2;
+        tokens = Arrays.copyOf(tokens, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        timestamps = Arrays.copyOf(timestamps, capacity);
+    }
+}
@@ -0,0 +1,81 @@
+package com.tradingbot.event;
+
+import com.tradingbot.util.LongObjectTable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dispatches price ticks to {@link TickListener}s registered per instrument token.
+ * <p>
+ * This replaces publishing a {@link PriceTickEvent} per tick through Spring's event multicaster.
+ * Dispatch is a primitive token lookup into an immutable listener index followed by a plain
+ * array loop: no event objects, no reflection and no locks. Registration is rare and rebuilds
+ * the index under a lock.
+ */
+@Slf4j
+@Component
+public class TickBus {
+
+    private static final TickListener[] NO_LISTENERS = new TickListener[0];
+
+    /** Source of truth for registrations. Guarded by {@code this}. */
+    private final Map<Long, TickListener[]> registrations = new HashMap<>();
+    private volatile LongObjectTable<TickListener[]> index = LongObjectTable.empty();
+
+    public synchronized void register(long instrumentToken, TickListener listener) {
+        TickListener[] current = registrations.getOrDefault(instrumentToken, NO_LISTENERS);
+        for (TickListener existing : current) {
+            if (existing == listener) {
+                return;
+            }
+        }
+        TickListener[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = listener;
+        registrations.put(instrumentToken, updated);
+        index = LongObjectTable.of(registrations);
+    }
+
+    public synchronized void unregister(long instrumentToken, TickListener listener) {
+        TickListener[] current = registrations.get(instrumentToken);
+        if (current == null) {
+            return;
+        }
+        TickListener[] updated = Arrays.stream(current).filter(l -> l != listener).toArray(TickListener[]::new);
+        if (updated.length == 0) {
+            registrations.remove(instrumentToken);
+        } else {
+            registrations.put(instrumentToken, updated);
+        }
+        index = LongObjectTable.of(registrations);
+    }
+
+    /**
+     * Delivers one tick to every listener registered on its token.
+     */
+    public void publish(long instrumentToken, double lastTradedPrice, long timestamp) {
+        TickListener[] listeners = index.get(instrumentToken);
+        if (listeners == null) {
+            return;
+        }
+        for (TickListener listener : listeners) {
+            try {
+                listener.onTick(instrumentToken, lastTradedPrice, timestamp);
+            } catch (Exception e) {
+                log.error("Tick listener failed for token {}: {}", instrumentToken, e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Delivers every tick in the buffer, in order.
+     */
+    public void publish(TickBuffer buffer) {
+        for (int i = 0, n = buffer.size(); i < n; i++) {
+            publish(buffer.token(i), buffer.price(i), buffer.timestamp(i));
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.tradingbot.event;
+
+/**
+ * Receives price ticks from the {@link TickBus}.
+ * <p>
+ * Ticks are delivered as primitives on the ticker callback thread, so implementations must
+ * return quickly and should not block on I/O.
+ */
+@FunctionalInterface
+public interface TickListener {
+
+    /**
+     * @param instrumentToken the instrument the tick belongs to
+     * @param lastTradedPrice the last traded price
+     * @param timestamp       the exchange tick time in epoch millis
+     */
+    void onTick(long instrumentToken, double lastTradedPrice, long timestamp);
+}
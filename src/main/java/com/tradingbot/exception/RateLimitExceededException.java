@@ -0,0 +1,13 @@
+package com.tradingbot.exception;
+
+/**
+ * Thrown when a Kite REST call is shed by the client-side rate limiter instead of being sent.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public RateLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,71 @@
+package com.tradingbot.journal;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * On-disk layout of the tick journal.
+ * <p>
+ * A day is written to one or more segment files named {@code ticks-<date>-<segment>.tj}. Each
+ * segment is a 64-byte header followed by a preallocated array of fixed-width little-endian
+ * records. A record is 64 bytes, plus {@value #DEPTH_BYTES} bytes of market depth when the
+ * segment's {@link #FLAG_DEPTH} is set. Instrument tokens are never zero, so the token field
+ * doubles as the commit marker: it is written last, with release semantics, and a reader stops at
+ * the first record whose token is still zero.
+ *
+ * <pre>
+ * header:  0 magic  4 version  8 recordBytes  12 flags  16 epochDay  24 segment  28 capacity
+ * record:  0 token  8 exchangeTime  16 receivedTime  24 ltpPaise  32 volume  40 openInterest
+ *          64.. depth: buy levels then sell levels, each {priceLong paise, quantity int, orders int}
+ * </pre>
+ */
+public final class TickJournalFormat {
+
+    static final int MAGIC = 0x314A4B54; // "TKJ1" little-endian
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 64;
+    static final int BASE_RECORD_BYTES = 64;
+    public static final int DEPTH_LEVELS = 5;
+    public static final int BUY = 0;
+    public static final int SELL = 1;
+    static final int DEPTH_LEVEL_BYTES = 16;
+    static final int DEPTH_BYTES = 2 * DEPTH_LEVELS * DEPTH_LEVEL_BYTES;
+    static final int FLAG_DEPTH = 1;
+
+    static final int H_MAGIC = 0;
+    static final int H_VERSION = 4;
+    static final int H_RECORD_BYTES = 8;
+    static final int H_FLAGS = 12;
+    static final int H_EPOCH_DAY = 16;
+    static final int H_SEGMENT = 24;
+    static final int H_CAPACITY = 28;
+
+    static final int R_TOKEN = 0;
+    static final int R_EXCHANGE_TIME = 8;
+    static final int R_RECEIVED_TIME = 16;
+    static final int R_LTP = 24;
+    static final int R_VOLUME = 32;
+    static final int R_OPEN_INTEREST = 40;
+    static final int R_DEPTH = BASE_RECORD_BYTES;
+
+    /** Long view used for the release/acquire access to the token commit marker. */
+    static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private TickJournalFormat() {
+    }
+
+    static int recordBytes(boolean depth) {
+        return depth ? BASE_RECORD_BYTES + DEPTH_BYTES : BASE_RECORD_BYTES;
+    }
+
+    static int depthOffset(int side, int level) {
+        return R_DEPTH + (side * DEPTH_LEVELS + level) * DEPTH_LEVEL_BYTES;
+    }
+
+    public static Path segmentPath(Path dir, LocalDate day, int segment) {
+        return dir.resolve(String.format("ticks-%s-%03d.tj", day, segment));
+    }
+}
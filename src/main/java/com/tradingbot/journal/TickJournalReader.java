@@ -0,0 +1,142 @@
+package com.tradingbot.journal;
+
+import com.tradingbot.backtest.TickSource;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+import static com.tradingbot.journal.TickJournalFormat.*;
+
+/**
+ * Replays one day of the tick journal, segment by segment, straight from the mapped files.
+ * <p>
+ * Reading is a sequential walk over memory-mapped records, so a day replays at the speed the OS
+ * can page it in. The reader only sees committed records and may be used on a day that is still
+ * being written; it then stops at the last record committed when it got there.
+ */
+public final class TickJournalReader implements TickSource {
+
+    private final Path dir;
+    private final LocalDate day;
+    private int segment = -1;
+    private MappedByteBuffer buffer;
+    private int recordBytes;
+    private int capacity;
+    private boolean depth;
+    private int index;
+    private int offset;
+
+    private TickJournalReader(Path dir, LocalDate day) {
+        this.dir = dir;
+        this.day = day;
+    }
+
+    /**
+     * Opens the journal of one day.
+     *
+     * @throws IOException when the day has no journal or its first segment is not a journal file
+     */
+    public static TickJournalReader open(Path dir, LocalDate day) throws IOException {
+        TickJournalReader reader = new TickJournalReader(dir, day);
+        if (!reader.mapNextSegment()) {
+            throw new IOException("No tick journal for " + day + " in " + dir);
+        }
+        return reader;
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        while (buffer != null) {
+            if (index < capacity) {
+                int candidate = HEADER_BYTES + index * recordBytes;
+                if ((long) LONGS.getAcquire(buffer, candidate + R_TOKEN) != 0L) {
+                    offset = candidate;
+                    index++;
+                    return true;
+                }
+            }
+            if (!mapNextSegment()) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public long token() {
+        return buffer.getLong(offset + R_TOKEN);
+    }
+
+    @Override
+    public long timestamp() {
+        return buffer.getLong(offset + R_EXCHANGE_TIME);
+    }
+
+    @Override
+    public long pricePaise() {
+        return buffer.getLong(offset + R_LTP);
+    }
+
+    /** Local wall-clock time the tick was received, in epoch millis. */
+    public long receivedTime() {
+        return buffer.getLong(offset + R_RECEIVED_TIME);
+    }
+
+    public long volume() {
+        return buffer.getLong(offset + R_VOLUME);
+    }
+
+    public long openInterest() {
+        return buffer.getLong(offset + R_OPEN_INTEREST);
+    }
+
+    /** Whether the current segment records market depth. */
+    public boolean hasDepth() {
+        return depth;
+    }
+
+    public long depthPricePaise(int side, int level) {
+        return buffer.getLong(offset + depthOffset(side, level));
+    }
+
+    public int depthQuantity(int side, int level) {
+        return buffer.getInt(offset + depthOffset(side, level) + 8);
+    }
+
+    public int depthOrders(int side, int level) {
+        return buffer.getInt(offset + depthOffset(side, level) + 12);
+    }
+
+    @Override
+    public void close() {
+        buffer = null;
+    }
+
+    private boolean mapNextSegment() throws IOException {
+        Path file = segmentPath(dir, day, segment + 1);
+        if (!Files.exists(file)) {
+            buffer = null;
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (mapped.getInt(H_MAGIC) != MAGIC || mapped.getInt(H_VERSION) != VERSION) {
+                throw new IOException("Not a tick journal segment: " + file);
+            }
+            buffer = mapped;
+            recordBytes = mapped.getInt(H_RECORD_BYTES);
+            capacity = mapped.getInt(H_CAPACITY);
+            depth = (mapped.getInt(H_FLAGS) & FLAG_DEPTH) != 0;
+            segment++;
+            index = 0;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,205 @@
+package com.tradingbot.journal;
+
+import com.tradingbot.backtest.BacktestEngine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+
+import static com.tradingbot.journal.TickJournalFormat.*;
+
+/**
+ * Appends ticks to the memory-mapped, day-rolled journal described in {@link TickJournalFormat}.
+ * <p>
+ * The writer is meant to be owned by the single thread that receives ticks. Appending writes
+ * straight into the mapped segment: no locks, no allocation and no system calls, except when a
+ * new segment has to be mapped at the start of a day or when the current one is full. A record is
+ * written in two steps so depth can be filled in place: {@link #reserve} returns its offset, then
+ * {@link #commit} writes the fixed fields and publishes it. Reopening a day after a restart
+ * appends after the last committed record.
+ */
+public final class TickJournalWriter implements Closeable {
+
+    private final Path dir;
+    private final boolean depth;
+    private final int recordBytes;
+    private final int segmentRecords;
+
+    private MappedByteBuffer buffer;
+    private LocalDate day;
+    private long dayEndsAtMillis = Long.MIN_VALUE;
+    private int segment;
+    private int position;
+    private volatile long written;
+    private volatile long dropped;
+    private volatile boolean closed;
+
+    /**
+     * @param segmentRecords records per segment file; files are sparse until written
+     */
+    public TickJournalWriter(Path dir, boolean depth, int segmentRecords) throws IOException {
+        this.dir = dir;
+        this.depth = depth;
+        this.recordBytes = recordBytes(depth);
+        if (segmentRecords <= 0 || (long) segmentRecords * recordBytes > Integer.MAX_VALUE - HEADER_BYTES) {
+            throw new IllegalArgumentException("Segment of " + segmentRecords + " records does not fit one mapping");
+        }
+        this.segmentRecords = segmentRecords;
+        Files.createDirectories(dir);
+    }
+
+    /**
+     * Reserves the next record, rolling to a new day or segment when needed.
+     *
+     * @return the record's offset for {@link #putDepth} and {@link #commit}, or {@code -1} when
+     * the journal is closed or a segment could not be mapped; the tick is then counted as dropped
+     */
+    public int reserve(long nowMillis) {
+        if (closed) {
+            dropped++;
+            return -1;
+        }
+        try {
+            if (nowMillis >= dayEndsAtMillis) {
+                openDay(Instant.ofEpochMilli(nowMillis).atZone(BacktestEngine.EXCHANGE_ZONE).toLocalDate());
+            } else if (position == segmentRecords) {
+                mapSegment(segment + 1);
+            }
+        } catch (IOException e) {
+            buffer = null;
+            dayEndsAtMillis = Long.MIN_VALUE;
+            dropped++;
+            return -1;
+        }
+        return HEADER_BYTES + position * recordBytes;
+    }
+
+    /**
+     * Writes one level of market depth into a reserved record. Ignored when depth is not recorded.
+     */
+    public void putDepth(int offset, int side, int level, long pricePaise, int quantity, int orders) {
+        if (!depth || level >= DEPTH_LEVELS) {
+            return;
+        }
+        int at = offset + depthOffset(side, level);
+        buffer.putLong(at, pricePaise);
+        buffer.putInt(at + 8, quantity);
+        buffer.putInt(at + 12, orders);
+    }
+
+    /**
+     * Writes the fixed fields of a reserved record and publishes it to readers.
+     */
+    public void commit(int offset, long token, long exchangeTime, long receivedTime, long ltpPaise, long volume,
+                       long openInterest) {
+        buffer.putLong(offset + R_EXCHANGE_TIME, exchangeTime);
+        buffer.putLong(offset + R_RECEIVED_TIME, receivedTime);
+        buffer.putLong(offset + R_LTP, ltpPaise);
+        buffer.putLong(offset + R_VOLUME, volume);
+        buffer.putLong(offset + R_OPEN_INTEREST, openInterest);
+        LONGS.setRelease(buffer, offset + R_TOKEN, token);
+        position++;
+        written++;
+    }
+
+    public long getWritten() {
+        return written;
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Flushes the current segment to disk. Appends after this are dropped.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        MappedByteBuffer current = buffer;
+        if (current != null) {
+            current.force();
+        }
+    }
+
+    private void openDay(LocalDate today) throws IOException {
+        if (buffer != null) {
+            buffer.force();
+        }
+        day = today;
+        dayEndsAtMillis = today.plusDays(1).atStartOfDay(BacktestEngine.EXCHANGE_ZONE).toInstant().toEpochMilli();
+        int last = 0;
+        while (Files.exists(segmentPath(dir, today, last + 1))) {
+            last++;
+        }
+        mapSegment(last);
+        if (position == segmentRecords) {
+            mapSegment(last + 1);
+        }
+    }
+
+    private void mapSegment(int index) throws IOException {
+        if (buffer != null) {
+            buffer.force();
+        }
+        Path file = segmentPath(dir, day, index);
+        boolean existing = Files.exists(file);
+        long size = HEADER_BYTES + (long) segmentRecords * recordBytes;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            if (existing && !compatible(channel)) {
+                // Written with other settings; leave it alone and start the next segment.
+                mapSegment(index + 1);
+                return;
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (!existing) {
+                mapped.putInt(H_MAGIC, MAGIC);
+                mapped.putInt(H_VERSION, VERSION);
+                mapped.putInt(H_RECORD_BYTES, recordBytes);
+                mapped.putInt(H_FLAGS, depth ? FLAG_DEPTH : 0);
+                mapped.putLong(H_EPOCH_DAY, day.toEpochDay());
+                mapped.putInt(H_SEGMENT, index);
+                mapped.putInt(H_CAPACITY, segmentRecords);
+            }
+            buffer = mapped;
+            segment = index;
+            position = existing ? committedRecords(mapped) : 0;
+        }
+    }
+
+    private boolean compatible(FileChannel channel) throws IOException {
+        if (channel.size() < HEADER_BYTES) {
+            return false;
+        }
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        return header.getInt(H_MAGIC) == MAGIC && header.getInt(H_RECORD_BYTES) == recordBytes
+                && header.getInt(H_CAPACITY) == segmentRecords;
+    }
+
+    /**
+     * Committed records form a prefix of the segment, so the first empty one is found by bisection.
+     */
+    private int committedRecords(MappedByteBuffer mapped) {
+        int low = 0;
+        int high = segmentRecords;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if ((long) LONGS.getAcquire(mapped, HEADER_BYTES + mid * recordBytes + R_TOKEN) != 0L) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
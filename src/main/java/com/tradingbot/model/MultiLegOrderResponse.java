@@ -0,0 +1,41 @@
+package com.tradingbot.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Model representing the combined result of placing several order legs together.
+ * Legs and responses are index-aligned.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MultiLegOrderResponse {
+    /** The legs as sent, with the price each leg was placed at when it had one. */
+    private List<OrderRequest> legs;
+
+    /** The response for each leg. */
+    private List<OrderResponse> responses;
+
+    /** Wall-clock time from the first leg being submitted to the last leg returning. */
+    private long elapsedNanos;
+
+    /** Whether every leg was accepted. */
+    public boolean isComplete() {
+        return responses.stream().allMatch(r -> r.getStatus() == OrderResponse.OrderStatus.SUCCESS);
+    }
+
+    /** The order id of a leg, or {@code null} when that leg failed. */
+    public String getOrderId(int leg) {
+        return responses.get(leg).getOrderId();
+    }
+
+    /** The price a leg was placed at, or {@code null} when it was sent without a quote. */
+    public BigDecimal getPrice(int leg) {
+        return legs.get(leg).getPrice();
+    }
+}
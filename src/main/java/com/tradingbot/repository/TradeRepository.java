@@ -1,11 +1,15 @@
 package com.tradingbot.repository;
 
+import com.tradingbot.dto.TradeHistoryItem;
 import com.tradingbot.entity.Trade;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -44,23 +48,62 @@ public interface TradeRepository extends JpaRepository<Trade, Long> {
     List<Trade> findByStrategyAndStatus(@NonNull String strategy, @NonNull String status);
 
     /**
-     * Finds all trades, ordered by the most recent entry time first.
-     * Useful for the dashboard display.
+     * Gives every trade without an entry timestamp its exit time, or {@code now} when it has not
+     * exited. Only rows written before the entry timestamp was always set are affected.
      *
-     * @return a list of trades ordered by entry timestamp in descending order
+     * @return the number of trades updated
      */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Trade t SET t.entryTimestamp = COALESCE(t.exitTimestamp, :now) WHERE t.entryTimestamp IS NULL")
+    int backfillEntryTimestamps(@Param("now") @NonNull LocalDateTime now);
+
+    /**
+     * Returns the newest page of trade history as projections, ordered by entry time then id.
+     *
+     * @param page only the page size is used; always request page 0
+     */
+    @Query("SELECT new com.tradingbot.dto.TradeHistoryItem(t.id, t.orderId, t.symbol, t.type, t.quantity, "
+            + "t.entryPrice, t.exitPrice, t.pnl, t.status, t.entryTimestamp, t.exitTimestamp) "
+            + "FROM Trade t ORDER BY t.entryTimestamp DESC, t.id DESC")
+    @NonNull
+    List<TradeHistoryItem> findHistory(@NonNull Pageable page);
+
+    /**
+     * Returns the page of trade history that follows the row identified by ({@code beforeTimestamp},
+     * {@code beforeId}). Seeks on the entry timestamp index, so the cost does not grow with how
+     * far back the page is.
+     *
+     * @param page only the page size is used; always request page 0
+     */
+    @Query("SELECT new com.tradingbot.dto.TradeHistoryItem(t.id, t.orderId, t.symbol, t.type, t.quantity, "
+            + "t.entryPrice, t.exitPrice, t.pnl, t.status, t.entryTimestamp, t.exitTimestamp) "
+            + "FROM Trade t WHERE t.entryTimestamp < :beforeTimestamp "
+            + "OR (t.entryTimestamp = :beforeTimestamp AND t.id < :beforeId) "
+            + "ORDER BY t.entryTimestamp DESC, t.id DESC")
     @NonNull
-    List<Trade> findAllByOrderByEntryTimestampDesc();
+    List<TradeHistoryItem> findHistoryBefore(@Param("beforeTimestamp") @NonNull LocalDateTime beforeTimestamp,
+                                             @Param("beforeId") @NonNull Long beforeId,
+                                             @NonNull Pageable page);
 
     /**
-     * Calculates the total realized Profit and Loss for trades that were CLOSED
+     * Calculates the total realized Profit and Loss for trades with the given status that exited
      * within a specific time window (typically, for the current day).
      *
-     * @param start the start of the time window (must not be null)
-     * @param end   the end of the time window (must not be null)
-     * @return the total realized PnL for the specified time window
+     * @param status the status of closed trades, normally COMPLETE (must not be null)
+     * @param start  the start of the time window (must not be null)
+     * @param end    the end of the time window (must not be null)
+     * @return the total realized PnL for the specified time window, zero when there are none
      */
-    @Query("SELECT SUM(t.pnl) FROM Trade t WHERE t.status = 'CLOSED' AND t.exitTimestamp >= :start AND t.exitTimestamp < :end")
+    @Query("SELECT COALESCE(SUM(t.pnl), 0) FROM Trade t WHERE t.status = :status AND t.exitTimestamp >= :start AND t.exitTimestamp < :end")
     @NonNull
-    BigDecimal findTodaysPnLBetween(@Param("start") @NonNull LocalDateTime start, @Param("end") @NonNull LocalDateTime end);
+    BigDecimal sumPnLByStatusBetween(@Param("status") @NonNull Trade.TradeStatus status,
+                                     @Param("start") @NonNull LocalDateTime start, @Param("end") @NonNull LocalDateTime end);
+
+    /**
+     * Counts trades with the given status that exited within a specific time window.
+     */
+    long countByStatusAndExitTimestampGreaterThanEqualAndExitTimestampLessThan(@NonNull Trade.TradeStatus status,
+                                                                               @NonNull LocalDateTime start,
+                                                                               @NonNull LocalDateTime end);
 }
\ No newline at end of file
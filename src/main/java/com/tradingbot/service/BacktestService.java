@@ -0,0 +1,165 @@
+package com.tradingbot.service;
+
+import com.tradingbot.archive.TickArchiveFormat;
+import com.tradingbot.archive.TickArchiveReader;
+import com.tradingbot.backtest.BacktestConfig;
+import com.tradingbot.backtest.BacktestEngine;
+import com.tradingbot.backtest.CsvTickSource;
+import com.tradingbot.backtest.ParameterSweep;
+import com.tradingbot.backtest.TickMerger;
+import com.tradingbot.backtest.TickSource;
+import com.tradingbot.backtest.TickTape;
+import com.tradingbot.dto.BacktestReport;
+import com.tradingbot.dto.SweepReport;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * Runs backtests over recorded tick files.
+ * <p>
+ * Files are looked up by name in {@code trading.backtest.data-dir}, then on the classpath, so the
+ * bundled sample files work out of the box. Names ending in {@code .tka} are tick archives, which
+ * are read from the data directory only and carry their own dates. Names may not contain a path.
+ * Sweeps run on their own fork-join pool sized to {@code trading.backtest.sweep-threads}, away
+ * from the common pool.
+ */
+@Slf4j
+@Service
+public class BacktestService {
+
+    @Value("${trading.backtest.data-dir:data/ticks}")
+    private String dataDir;
+
+    @Value("${trading.backtest.default-files:banknifty_tick_data_dummy_12806402.csv,banknifty_tick_data_dummy_12806658.csv}")
+    private List<String> defaultFiles;
+
+    private final ForkJoinPool sweepPool;
+
+    public BacktestService(@Value("${trading.backtest.sweep-threads:0}") int sweepThreads) {
+        int parallelism = sweepThreads > 0 ? sweepThreads : Runtime.getRuntime().availableProcessors();
+        this.sweepPool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("backtest-sweep-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    public BacktestReport run(BacktestConfig config, List<String> files, LocalDate sessionDate) throws IOException {
+        List<String> names = files == null || files.isEmpty() ? defaultFiles : files;
+        BacktestReport report = BacktestEngine.run(openAll(names, sessionDate), config.toBuilder().legs(legs(names)).build());
+        log.info("Backtest of {} ticks from {} finished in {} ms: {} trades, P&L {} paise, max drawdown {} paise",
+                report.getTicks(), names, report.getElapsedNanos() / 1_000_000, report.getTrades(),
+                report.getPnlPaise(), report.getMaxDrawdownPaise());
+        return report;
+    }
+
+    /**
+     * Loads the files once and evaluates every candidate target/stop pair over them in parallel.
+     *
+     * @param top how many of the best results to return
+     */
+    public SweepReport sweep(BacktestConfig base, List<String> files, LocalDate sessionDate, ParameterSweep.Mode mode,
+                             ParameterSweep.Range target, ParameterSweep.Range stop, int samples, long seed,
+                             ParameterSweep.Objective objective, int top) throws IOException {
+        List<String> names = files == null || files.isEmpty() ? defaultFiles : files;
+        long started = System.nanoTime();
+        TickTape tape = TickTape.load(openAll(names, sessionDate));
+        long loaded = System.nanoTime();
+        List<BacktestReport> ranked = new ParameterSweep(sweepPool).run(tape, base.toBuilder().legs(legs(names)).build(),
+                mode, target, stop, samples, seed, objective);
+        long finished = System.nanoTime();
+        log.info("{} sweep of {} combinations over {} ticks finished in {} ms", mode, ranked.size(), tape.size(),
+                (finished - loaded) / 1_000_000);
+        return new SweepReport(mode.name(), objective.name(), ranked.size(), tape.size(), loaded - started,
+                finished - loaded, ranked.subList(0, Math.min(top, ranked.size())));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sweepPool.shutdownNow();
+    }
+
+    /**
+     * Opens the named files as one time-ordered stream.
+     */
+    public TickSource openAll(List<String> names, LocalDate sessionDate) throws IOException {
+        List<TickSource> sources = new ArrayList<>(names.size());
+        try {
+            for (String name : names) {
+                sources.add(isArchive(name) ? TickArchiveReader.open(archivePath(name))
+                        : new CsvTickSource(openFile(name), sessionDate));
+            }
+        } catch (IOException | RuntimeException e) {
+            for (TickSource source : sources) {
+                source.close();
+            }
+            throw e;
+        }
+        return new TickMerger(sources);
+    }
+
+    public List<String> getDefaultFiles() {
+        return defaultFiles;
+    }
+
+    /**
+     * Legs traded over the files: a CSV file holds one leg, an archive one per token.
+     */
+    private int legs(List<String> names) throws IOException {
+        int legs = 0;
+        for (String name : names) {
+            if (isArchive(name)) {
+                try (TickArchiveReader archive = TickArchiveReader.open(archivePath(name))) {
+                    legs += archive.tokens().length;
+                }
+            } else {
+                legs++;
+            }
+        }
+        return legs;
+    }
+
+    private static boolean isArchive(String name) {
+        return name.endsWith(TickArchiveFormat.EXTENSION);
+    }
+
+    private Path archivePath(String name) {
+        Path file = Path.of(dataDir, checkName(name));
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("Tick file not found: " + name);
+        }
+        return file;
+    }
+
+    private InputStream openFile(String name) throws IOException {
+        Path file = Path.of(dataDir, checkName(name));
+        if (Files.isRegularFile(file)) {
+            return Files.newInputStream(file);
+        }
+        InputStream resource = getClass().getClassLoader().getResourceAsStream(name);
+        if (resource == null) {
+            throw new IllegalArgumentException("Tick file not found: " + name);
+        }
+        return resource;
+    }
+
+    private static String checkName(String name) {
+        if (name.isBlank() || name.contains("/") || name.contains("\\") || name.contains("..")) {
+            throw new IllegalArgumentException("Invalid tick file name: " + name);
+        }
+        return name;
+    }
+}
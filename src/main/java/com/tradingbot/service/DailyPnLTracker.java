@@ -0,0 +1,161 @@
+package com.tradingbot.service;
+
+import com.tradingbot.entity.DailyPnL;
+import com.tradingbot.entity.Trade;
+import com.tradingbot.repository.DailyPnLRepository;
+import com.tradingbot.repository.TradeRepository;
+import com.tradingbot.util.FixedPoint;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The single source of today's realized P&L.
+ * <p>
+ * Closed trades are added to an in-memory accumulator held in paise, so reading the day's P&L or
+ * checking the loss limit is a volatile read that is cheap enough to do on every tick. Each change
+ * is written through to the day's {@link DailyPnL} row on a background thread. The row carries
+ * absolute totals rather than increments, so a write that loses an optimistic-lock race is simply
+ * retried with the latest totals. At startup the accumulator is rebuilt from today's closed trades.
+ */
+@Slf4j
+@Component
+public class DailyPnLTracker {
+
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+
+    private final DailyPnLRepository dailyPnLRepository;
+    private final TradeRepository tradeRepository;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "daily-pnl-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Day day;
+    private volatile long maxDailyLossPaise;
+
+    public DailyPnLTracker(DailyPnLRepository dailyPnLRepository, TradeRepository tradeRepository,
+                           @Value("${trading.strategy.max-daily-loss}") BigDecimal maxDailyLoss) {
+        this.dailyPnLRepository = dailyPnLRepository;
+        this.tradeRepository = tradeRepository;
+        this.maxDailyLossPaise = FixedPoint.toPaise(maxDailyLoss);
+        this.day = new Day(LocalDate.now());
+    }
+
+    @PostConstruct
+    void rebuild() {
+        Day today = new Day(LocalDate.now());
+        LocalDateTime start = today.date.atStartOfDay();
+        LocalDateTime end = today.date.plusDays(1).atStartOfDay();
+        today.pnlPaise.set(FixedPoint.toPaise(tradeRepository.sumPnLByStatusBetween(Trade.TradeStatus.COMPLETE, start, end)));
+        today.trades.set((int) tradeRepository.countByStatusAndExitTimestampGreaterThanEqualAndExitTimestampLessThan(
+                Trade.TradeStatus.COMPLETE, start, end));
+        day = today;
+        writer.execute(() -> persist(today));
+        log.info("Daily P&L rebuilt from {} closed trades: {}", today.trades.get(), getTodaysPnL());
+    }
+
+    /**
+     * Adds the P&L of a closed trade to today's total.
+     */
+    public void record(BigDecimal pnl) {
+        Day today = currentDay();
+        long paise = FixedPoint.toPaise(pnl);
+        long total = today.pnlPaise.addAndGet(paise);
+        today.trades.incrementAndGet();
+        if (total <= -maxDailyLossPaise && total - paise > -maxDailyLossPaise) {
+            log.warn("Daily loss limit reached. Trading stopped for today.");
+        }
+        writer.execute(() -> persist(today));
+    }
+
+    public long getTodaysPnLPaise() {
+        return currentDay().pnlPaise.get();
+    }
+
+    public BigDecimal getTodaysPnL() {
+        return FixedPoint.toRupees(getTodaysPnLPaise());
+    }
+
+    /**
+     * Whether today's realized loss, plus the given unrealized P&L of open positions, has reached
+     * the configured limit.
+     */
+    public boolean isLossLimitReached(long unrealizedPaise) {
+        return getTodaysPnLPaise() + unrealizedPaise <= -maxDailyLossPaise;
+    }
+
+    public void setMaxDailyLoss(BigDecimal maxDailyLoss) {
+        this.maxDailyLossPaise = FixedPoint.toPaise(maxDailyLoss);
+    }
+
+    @PreDestroy
+    void flush() throws InterruptedException {
+        writer.shutdown();
+        if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Daily P&L writer did not drain within 10s");
+        }
+    }
+
+    /**
+     * Returns the accumulator for today, starting a fresh one after midnight.
+     */
+    private Day currentDay() {
+        Day current = day;
+        if (System.currentTimeMillis() < current.endsAtMillis) {
+            return current;
+        }
+        synchronized (this) {
+            if (System.currentTimeMillis() >= day.endsAtMillis) {
+                day = new Day(LocalDate.now());
+            }
+            return day;
+        }
+    }
+
+    private void persist(Day snapshot) {
+        for (int attempt = 1; attempt <= MAX_WRITE_ATTEMPTS; attempt++) {
+            try {
+                DailyPnL row = dailyPnLRepository.findByDate(snapshot.date).orElseGet(() -> new DailyPnL(snapshot.date));
+                long pnlPaise = snapshot.pnlPaise.get();
+                row.setTotalPnl(FixedPoint.toRupees(pnlPaise));
+                row.setTotalTrades(snapshot.trades.get());
+                row.setTradingStopped(pnlPaise <= -maxDailyLossPaise);
+                dailyPnLRepository.save(row);
+                return;
+            } catch (ObjectOptimisticLockingFailureException e) {
+                log.debug("Daily P&L row for {} changed concurrently, retrying", snapshot.date);
+            } catch (Exception e) {
+                log.error("Failed to persist daily P&L for {}", snapshot.date, e);
+                return;
+            }
+        }
+        log.error("Gave up persisting daily P&L for {} after {} attempts", snapshot.date, MAX_WRITE_ATTEMPTS);
+    }
+
+    private static final class Day {
+        private final LocalDate date;
+        private final long endsAtMillis;
+        private final AtomicLong pnlPaise = new AtomicLong();
+        private final AtomicInteger trades = new AtomicInteger();
+
+        Day(LocalDate date) {
+            this.date = date;
+            this.endsAtMillis = date.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+    }
+}
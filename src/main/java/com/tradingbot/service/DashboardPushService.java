@@ -0,0 +1,178 @@
+package com.tradingbot.service;
+
+import com.tradingbot.dto.DashboardDelta;
+import com.tradingbot.dto.MtmSnapshot;
+import com.zerodhatech.models.Order;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes live dashboard deltas to STOMP subscribers of {@value #TOPIC}.
+ * <p>
+ * Every frame ({@code trading.dashboard.push-interval-ms}, 250 ms by default) reads the open legs'
+ * prices and P&L from the {@link MtmEngine}. It then
+ * sends only the values that changed since the previous frame, so a burst of ticks costs one
+ * message per frame. Legs that closed are listed once so the page can drop them. Order status
+ * updates from the Kite websocket are coalesced per order the same way. Nothing is computed while no browser is subscribed, and a new subscriber triggers
+ * one full frame.
+ */
+@Slf4j
+@Service
+public class DashboardPushService {
+
+    static final String TOPIC = "/topic/dashboard";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final MtmEngine mtmEngine;
+
+    private final Set<String> subscribers = ConcurrentHashMap.newKeySet();
+    private final Map<String, String> pendingOrderStatus = new ConcurrentHashMap<>();
+    // Last pushed values in paise, only touched by the push frame.
+    private final Map<String, Long> sentLtps = new HashMap<>();
+    private final Map<String, Long> sentTradePnl = new HashMap<>();
+    private long sentDailyPnl = Long.MIN_VALUE;
+    private long sequence;
+    private volatile boolean fullFrameRequested;
+
+    public DashboardPushService(SimpMessagingTemplate messagingTemplate, MtmEngine mtmEngine) {
+        this.messagingTemplate = messagingTemplate;
+        this.mtmEngine = mtmEngine;
+    }
+
+    @EventListener
+    public void handleSubscribe(SessionSubscribeEvent event) {
+        if (TOPIC.equals(SimpMessageHeaderAccessor.getDestination(event.getMessage().getHeaders()))) {
+            subscribers.add(SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders()));
+            fullFrameRequested = true;
+        }
+    }
+
+    @EventListener
+    public void handleUnsubscribe(SessionUnsubscribeEvent event) {
+        subscribers.remove(SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders()));
+    }
+
+    @EventListener
+    public void handleDisconnect(SessionDisconnectEvent event) {
+        subscribers.remove(event.getSessionId());
+    }
+
+    @EventListener
+    public void handleOrderUpdate(Order order) {
+        if (!subscribers.isEmpty() && order.orderId != null && order.status != null) {
+            pendingOrderStatus.put(order.orderId, order.status);
+        }
+    }
+
+    @Scheduled(fixedRateString = "${trading.dashboard.push-interval-ms:250}")
+    public synchronized void pushFrame() {
+        if (subscribers.isEmpty()) {
+            pendingOrderStatus.clear();
+            return;
+        }
+        boolean full = fullFrameRequested;
+        if (full) {
+            fullFrameRequested = false;
+            sentLtps.clear();
+            sentTradePnl.clear();
+            sentDailyPnl = Long.MIN_VALUE;
+        }
+
+        Map<String, Double> ltps = new LinkedHashMap<>();
+        Map<String, Double> tradePnl = new LinkedHashMap<>();
+        MtmSnapshot mtm = mtmEngine.snapshot();
+        for (MtmSnapshot.Leg leg : mtm.getLegs()) {
+            if (leg.getLtpPaise() == 0L) {
+                continue;
+            }
+            putIfChanged(sentLtps, ltps, leg.getSymbol(), leg.getLtpPaise());
+            if (leg.getOrderId() != null) {
+                putIfChanged(sentTradePnl, tradePnl, leg.getOrderId(), leg.getMtmPaise());
+            }
+        }
+        List<String> closedSymbols = new ArrayList<>();
+        List<String> closedOrderIds = new ArrayList<>();
+        pruneClosed(mtm.getLegs(), closedSymbols, closedOrderIds);
+
+        Double dailyPnl = null;
+        long dailyPnlPaise = mtm.getDayPaise();
+        if (dailyPnlPaise != sentDailyPnl) {
+            sentDailyPnl = dailyPnlPaise;
+            dailyPnl = dailyPnlPaise / 100.0;
+        }
+
+        Map<String, String> orderStatus = new LinkedHashMap<>();
+        for (String orderId : pendingOrderStatus.keySet()) {
+            String status = pendingOrderStatus.remove(orderId);
+            if (status != null) {
+                orderStatus.put(orderId, status);
+            }
+        }
+
+        DashboardDelta delta = DashboardDelta.builder()
+                .sequence(++sequence)
+                .full(full)
+                .ltps(ltps)
+                .tradePnl(tradePnl)
+                .dailyPnl(dailyPnl)
+                .orderStatus(orderStatus)
+                .closedSymbols(closedSymbols)
+                .closedOrderIds(closedOrderIds)
+                .build();
+        if (full || !delta.isEmpty()) {
+            messagingTemplate.convertAndSend(TOPIC, delta);
+        }
+    }
+
+    private static void putIfChanged(Map<String, Long> sent, Map<String, Double> delta, String key, long paise) {
+        Long previous = sent.put(key, paise);
+        if (previous == null || previous != paise) {
+            delta.put(key, paise / 100.0);
+        }
+    }
+
+    /**
+     * Forgets last-sent values of trades that closed, so the maps only track open legs, and
+     * collects the forgotten symbols and order ids so subscribers drop them too.
+     */
+    private void pruneClosed(List<MtmSnapshot.Leg> openLegs, List<String> closedSymbols,
+                             List<String> closedOrderIds) {
+        Set<String> openOrderIds = new HashSet<>();
+        Set<String> openSymbols = new HashSet<>();
+        for (MtmSnapshot.Leg leg : openLegs) {
+            if (leg.getOrderId() != null) {
+                openOrderIds.add(leg.getOrderId());
+            }
+            openSymbols.add(leg.getSymbol());
+        }
+        prune(sentTradePnl, openOrderIds, closedOrderIds);
+        prune(sentLtps, openSymbols, closedSymbols);
+    }
+
+    private static void prune(Map<String, Long> sent, Set<String> open, List<String> closed) {
+        for (Iterator<String> keys = sent.keySet().iterator(); keys.hasNext(); ) {
+            String key = keys.next();
+            if (!open.contains(key)) {
+                keys.remove();
+                closed.add(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.tradingbot.service;
+
+import com.tradingbot.dto.AccountInfo;
+import com.tradingbot.dto.DashboardSnapshot;
+import com.tradingbot.dto.TradeHistoryItem;
+import com.tradingbot.repository.TradeRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Keeps an immutable {@link DashboardSnapshot} current so {@code /dashboard} renders without
+ * calling Kite or the database.
+ * <p>
+ * Each section has its own TTL and is reloaded in parallel on a small pool once it goes stale.
+ * A section is never loaded twice at the same time, so any number of open tabs cost the same as
+ * one. Refreshing pauses while nobody has viewed the dashboard for the idle timeout.
+ */
+@Slf4j
+@Service
+public class DashboardSnapshotService {
+
+    private static final int UPCOMING_EXPIRY_COUNT = 3;
+
+    enum Section {
+        ACCOUNT, TRADES, EXPIRIES, ORDERS, POSITIONS, PNL
+    }
+
+    private final KiteService kiteService;
+    private final TradingService tradingService;
+    private final TradeRepository tradeRepository;
+    private final TradeHistoryService tradeHistoryService;
+    private final ExecutorService executor;
+    private final AtomicReference<DashboardSnapshot> snapshot = new AtomicReference<>(DashboardSnapshot.builder().build());
+    private final Map<Section, Long> ttlNanos = new EnumMap<>(Section.class);
+    private final Map<Section, SectionState> sections = new EnumMap<>(Section.class);
+
+    @Value("${trading.dashboard.recent-trades:50}")
+    private int recentTradesLimit;
+
+    @Value("${trading.dashboard.idle-timeout-ms:300000}")
+    private long idleTimeoutMs;
+
+    @Value("${trading.dashboard.initial-load-timeout-ms:5000}")
+    private long initialLoadTimeoutMs;
+
+    private volatile long lastViewedAt = System.nanoTime();
+
+    public DashboardSnapshotService(KiteService kiteService, TradingService tradingService, TradeRepository tradeRepository,
+                                    TradeHistoryService tradeHistoryService,
+                                    @Value("${trading.dashboard.ttl.account-ms:15000}") long accountTtlMs,
+                                    @Value("${trading.dashboard.ttl.trades-ms:5000}") long tradesTtlMs,
+                                    @Value("${trading.dashboard.ttl.expiries-ms:3600000}") long expiriesTtlMs,
+                                    @Value("${trading.dashboard.ttl.orders-ms:5000}") long ordersTtlMs,
+                                    @Value("${trading.dashboard.ttl.positions-ms:5000}") long positionsTtlMs,
+                                    @Value("${trading.dashboard.ttl.pnl-ms:2000}") long pnlTtlMs) {
+        this.kiteService = kiteService;
+        this.tradingService = tradingService;
+        this.tradeRepository = tradeRepository;
+        this.tradeHistoryService = tradeHistoryService;
+        ttlNanos.put(Section.ACCOUNT, TimeUnit.MILLISECONDS.toNanos(accountTtlMs));
+        ttlNanos.put(Section.TRADES, TimeUnit.MILLISECONDS.toNanos(tradesTtlMs));
+        ttlNanos.put(Section.EXPIRIES, TimeUnit.MILLISECONDS.toNanos(expiriesTtlMs));
+        ttlNanos.put(Section.ORDERS, TimeUnit.MILLISECONDS.toNanos(ordersTtlMs));
+        ttlNanos.put(Section.POSITIONS, TimeUnit.MILLISECONDS.toNanos(positionsTtlMs));
+        ttlNanos.put(Section.PNL, TimeUnit.MILLISECONDS.toNanos(pnlTtlMs));
+        for (Section section : Section.values()) {
+            sections.put(section, new SectionState());
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Section.values().length, runnable -> {
+            Thread thread = new Thread(runnable, "dashboard-refresh-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the latest snapshot. Only the first view after startup waits, and only for
+     * sections that have never been tried.
+     */
+    public DashboardSnapshot getSnapshot() {
+        List<CompletableFuture<Void>> initial = markViewed();
+        if (!initial.isEmpty()) {
+            try {
+                CompletableFuture.allOf(initial.toArray(CompletableFuture<?>[]::new))
+                        .get(initialLoadTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                log.warn("Dashboard sections still loading after {} ms; rendering partial snapshot", initialLoadTimeoutMs);
+            } catch (Exception e) {
+                log.error("Error loading dashboard snapshot", e);
+            }
+        }
+        return snapshot.get();
+    }
+
+    /**
+     * Returns the latest snapshot without waiting, starting the first load of any section that
+     * has never been loaded. Counts as a dashboard view for the idle timeout.
+     */
+    public DashboardSnapshot peekSnapshot() {
+        markViewed();
+        return snapshot.get();
+    }
+
+    private List<CompletableFuture<Void>> markViewed() {
+        lastViewedAt = System.nanoTime();
+        List<CompletableFuture<Void>> initial = new ArrayList<>();
+        sections.forEach((section, state) -> {
+            if (state.attemptedAt == 0L) {
+                initial.add(refresh(section));
+            }
+        });
+        return initial;
+    }
+
+    @Scheduled(fixedDelayString = "${trading.dashboard.refresh-check-ms:500}")
+    public void refreshStaleSections() {
+        long now = System.nanoTime();
+        if (now - lastViewedAt > TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs) || !kiteService.isAccessTokenValid()) {
+            return;
+        }
+        sections.forEach((section, state) -> {
+            if (state.attemptedAt != 0L && now - state.attemptedAt >= ttlNanos.get(section)) {
+                refresh(section);
+            }
+        });
+    }
+
+    /**
+     * Starts loading a section unless a load is already running, and returns the running load.
+     */
+    private CompletableFuture<Void> refresh(Section section) {
+        SectionState state = sections.get(section);
+        synchronized (state) {
+            if (state.pending != null && !state.pending.isDone()) {
+                return state.pending;
+            }
+            state.pending = CompletableFuture.runAsync(() -> {
+                try {
+                    UnaryOperator<DashboardSnapshot> update = load(section);
+                    if (update != null) {
+                        snapshot.updateAndGet(update);
+                        state.loadedAt = System.nanoTime();
+                    } else if (state.loadedAt != 0L) {
+                        log.warn("Dashboard section {} failed to load; keeping the value from {} ms ago", section,
+                                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - state.loadedAt));
+                    } else {
+                        log.warn("Dashboard section {} failed to load and has no earlier value", section);
+                    }
+                } catch (Exception e) {
+                    log.error("Error refreshing dashboard section {}", section, e);
+                } finally {
+                    // A failed load is retried one TTL later, like a stale one.
+                    state.attemptedAt = System.nanoTime();
+                }
+            }, executor);
+            return state.pending;
+        }
+    }
+
+    /**
+     * Fetches one section and returns how to apply it to the snapshot, or {@code null} to keep
+     * the previous value when the fetch failed.
+     */
+    private UnaryOperator<DashboardSnapshot> load(Section section) {
+        switch (section) {
+            case ACCOUNT: {
+                AccountInfo accountInfo = kiteService.getAccountInfo();
+                if (accountInfo == null) {
+                    return null;
+                }
+                log.info("Account Info: UserName={}, TotalMargin={}, UserId={}",
+                        accountInfo.getUserName(), accountInfo.getTotalMargin(), accountInfo.getUserId());
+                return s -> s.toBuilder().accountInfo(accountInfo).build();
+            }
+            case TRADES: {
+                List<TradeHistoryItem> recentTrades = tradeHistoryService.recent(recentTradesLimit);
+                long totalTrades = tradeRepository.count();
+                return s -> s.toBuilder().recentTrades(recentTrades).totalTrades(totalTrades).build();
+            }
+            case EXPIRIES: {
+                List<LocalDate> expiryDates = kiteService.getUpcomingExpiryDates(UPCOMING_EXPIRY_COUNT);
+                return expiryDates.isEmpty() ? null : s -> s.toBuilder().expiryDates(expiryDates).build();
+            }
+            case ORDERS: {
+                List<Map<String, Object>> orders = kiteService.loadOrders();
+                return orders == null ? null : s -> s.toBuilder().orders(orders).build();
+            }
+            case POSITIONS: {
+                Map<String, List<Map<String, Object>>> positions = kiteService.loadPositions();
+                return positions == null ? null : s -> s.toBuilder().positions(positions).build();
+            }
+            case PNL: {
+                BigDecimal todaysPnL = tradingService.getTodaysPnL();
+                return s -> s.toBuilder().todaysPnL(todaysPnL).build();
+            }
+            default:
+                throw new IllegalArgumentException("Unknown dashboard section " + section);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static final class SectionState {
+        /** When the section last loaded successfully, or 0 if it never has. */
+        private volatile long loadedAt;
+        /** When the last load finished, successful or not, or 0 if none has. */
+        private volatile long attemptedAt;
+        private CompletableFuture<Void> pending;
+    }
+}
@@ -0,0 +1,128 @@
+package com.tradingbot.service;
+
+import com.tradingbot.dto.NfoInstrument;
+import com.tradingbot.util.LongObjectTable;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Immutable, parsed snapshot of the NFO option instruments we trade.
+ * <p>
+ * Built once per instrument refresh. CSV fields are parsed a single time while building, and
+ * lookups by contract (underlying, expiry, strike, CE/PE), by instrument token and by trading
+ * symbol are hash lookups afterwards.
+ */
+public final class InstrumentMaster {
+
+    public static final InstrumentMaster EMPTY = builder().build();
+
+    private final Map<String, NfoInstrument> byContract;
+    private final LongObjectTable<NfoInstrument> byToken;
+    private final Map<String, NfoInstrument> bySymbol;
+    private final Map<String, List<LocalDate>> expiriesByUnderlying;
+
+    private InstrumentMaster(Builder builder) {
+        this.byContract = builder.byContract;
+        this.byToken = LongObjectTable.of(builder.byToken);
+        this.bySymbol = builder.bySymbol;
+        Map<String, List<LocalDate>> expiries = new HashMap<>();
+        builder.expiries.forEach((underlying, dates) ->
+                expiries.put(underlying, Collections.unmodifiableList(new ArrayList<>(dates))));
+        this.expiriesByUnderlying = expiries;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Finds an option contract, or returns {@code null} when it is not listed.
+     *
+     * @param instrumentType "CE" or "PE"
+     */
+    public NfoInstrument find(String underlying, LocalDate expiry, double strike, String instrumentType) {
+        return byContract.get(contractKey(underlying, expiry, strike, instrumentType));
+    }
+
+    public NfoInstrument findByToken(long instrumentToken) {
+        return byToken.get(instrumentToken);
+    }
+
+    public NfoInstrument findBySymbol(String tradingSymbol) {
+        return bySymbol.get(tradingSymbol);
+    }
+
+    /**
+     * Returns the listed expiries for an underlying in ascending order.
+     */
+    public List<LocalDate> expiries(String underlying) {
+        return expiriesByUnderlying.getOrDefault(underlying, Collections.emptyList());
+    }
+
+    /**
+     * Returns the first listed expiry on or after {@code date}, or {@code null} when there is none.
+     */
+    public LocalDate nearestExpiry(String underlying, LocalDate date) {
+        for (LocalDate expiry : expiries(underlying)) {
+            if (!expiry.isBefore(date)) {
+                return expiry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns every indexed instrument, in no particular order.
+     */
+    public Collection<NfoInstrument> instruments() {
+        return Collections.unmodifiableCollection(bySymbol.values());
+    }
+
+    public int size() {
+        return bySymbol.size();
+    }
+
+    public boolean isEmpty() {
+        return bySymbol.isEmpty();
+    }
+
+    private static String contractKey(String underlying, LocalDate expiry, double strike, String instrumentType) {
+        return underlying + '|' + expiry + '|' + Math.round(strike * 100) + '|' + instrumentType;
+    }
+
+    /**
+     * Accumulates parsed instruments. Not thread-safe; build on one thread and publish the result.
+     */
+    public static final class Builder {
+        private final Map<String, NfoInstrument> byContract = new HashMap<>();
+        private final Map<Long, NfoInstrument> byToken = new HashMap<>();
+        private final Map<String, NfoInstrument> bySymbol = new HashMap<>();
+        private final Map<String, TreeSet<LocalDate>> expiries = new HashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds an option contract whose expiry and strike have already been parsed.
+         */
+        public Builder add(NfoInstrument instrument, String underlying, long instrumentToken,
+                           LocalDate expiry, double strike) {
+            byContract.put(contractKey(underlying, expiry, strike, instrument.getInstrumentType()), instrument);
+            byToken.put(instrumentToken, instrument);
+            bySymbol.put(instrument.getTradingSymbol(), instrument);
+            expiries.computeIfAbsent(underlying, u -> new TreeSet<>()).add(expiry);
+            return this;
+        }
+
+        public InstrumentMaster build() {
+            return new InstrumentMaster(this);
+        }
+    }
+}
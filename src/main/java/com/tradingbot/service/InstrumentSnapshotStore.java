@@ -0,0 +1,162 @@
+package com.tradingbot.service;
+
+import com.tradingbot.dto.NfoInstrument;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+
+/**
+ * Persists the parsed {@link InstrumentMaster} to a compact binary file per trading date, so a
+ * restarted bot can pick strikes without re-downloading and re-parsing the NFO dump.
+ * <p>
+ * Each record stores the twelve dump columns plus the already-parsed token, expiry and strike,
+ * which lets {@link #load(LocalDate)} rebuild the indexes without any text parsing.
+ * <p>
+ * The snapshot only helps a restart if the directory outlives the process; in Kubernetes it sits
+ * on the persistent volume mounted by {@code deployment.yaml}. On a container's own filesystem it
+ * only survives in-place container restarts.
+ */
+@Slf4j
+@Component
+public class InstrumentSnapshotStore {
+
+    private static final int MAGIC = 0x4E464F31; // "NFO1"
+    private static final String FILE_PREFIX = "nfo-instruments-";
+    private static final String FILE_SUFFIX = ".bin";
+
+    private final Path directory;
+
+    public InstrumentSnapshotStore(@Value("${trading.instruments.snapshot-dir:data/instruments}") String directory) {
+        this.directory = Paths.get(directory);
+    }
+
+    /**
+     * Loads the snapshot written for {@code tradingDate}, if there is one and it is readable.
+     */
+    public Optional<Snapshot> load(LocalDate tradingDate) {
+        Path file = fileFor(tradingDate);
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readLong() != tradingDate.toEpochDay()) {
+                log.warn("Ignoring instrument snapshot {} with unexpected header", file);
+                return Optional.empty();
+            }
+            LocalDateTime loadedAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(in.readLong()), ZoneId.systemDefault());
+            String etag = in.readBoolean() ? in.readUTF() : null;
+            int count = in.readInt();
+            InstrumentMaster.Builder builder = InstrumentMaster.builder();
+            for (int i = 0; i < count; i++) {
+                long token = in.readLong();
+                LocalDate expiry = LocalDate.ofEpochDay(in.readInt());
+                double strike = in.readDouble();
+                NfoInstrument instrument = new NfoInstrument(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(),
+                        in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(),
+                        in.readUTF(), in.readUTF());
+                builder.add(instrument, instrument.getName(), token, expiry, strike);
+            }
+            return Optional.of(new Snapshot(builder.build(), loadedAt, etag));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read instrument snapshot {}: {}", file, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns whether a snapshot has been written for {@code tradingDate}.
+     */
+    public boolean exists(LocalDate tradingDate) {
+        return Files.isRegularFile(fileFor(tradingDate));
+    }
+
+    /**
+     * Writes the master for {@code tradingDate}, replacing any older snapshots.
+     * The file is written to a temporary name first so readers never see a partial snapshot.
+     */
+    public void save(LocalDate tradingDate, InstrumentMaster master, LocalDateTime loadedAt, String etag) {
+        Path file = fileFor(tradingDate);
+        try {
+            Files.createDirectories(directory);
+            Path tmp = Files.createTempFile(directory, FILE_PREFIX, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeLong(tradingDate.toEpochDay());
+                out.writeLong(loadedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+                out.writeBoolean(etag != null);
+                if (etag != null) {
+                    out.writeUTF(etag);
+                }
+                out.writeInt(master.size());
+                for (NfoInstrument instrument : master.instruments()) {
+                    out.writeLong(Long.parseLong(instrument.getInstrumentToken()));
+                    out.writeInt((int) LocalDate.parse(instrument.getExpiry()).toEpochDay());
+                    out.writeDouble(Double.parseDouble(instrument.getStrike()));
+                    writeFields(out, instrument);
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            deleteOlderThan(file);
+            log.info("Saved instrument snapshot with {} instruments to {}", master.size(), file);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not save instrument snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static void writeFields(DataOutputStream out, NfoInstrument instrument) throws IOException {
+        String[] fields = {instrument.getInstrumentToken(), instrument.getExchangeToken(), instrument.getTradingSymbol(),
+                instrument.getName(), instrument.getLastPrice(), instrument.getExpiry(), instrument.getStrike(),
+                instrument.getTickSize(), instrument.getLotSize(), instrument.getInstrumentType(),
+                instrument.getSegment(), instrument.getExchange()};
+        for (String field : fields) {
+            out.writeUTF(field != null ? field : "");
+        }
+    }
+
+    private void deleteOlderThan(Path current) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                if (!file.equals(current)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private Path fileFor(LocalDate tradingDate) {
+        return directory.resolve(FILE_PREFIX + tradingDate + FILE_SUFFIX);
+    }
+
+    /**
+     * A loaded snapshot together with the download metadata needed for conditional refresh.
+     */
+    @Getter
+    public static final class Snapshot {
+        private final InstrumentMaster master;
+        private final LocalDateTime loadedAt;
+        private final String etag;
+
+        Snapshot(InstrumentMaster master, LocalDateTime loadedAt, String etag) {
+            this.master = master;
+            this.loadedAt = loadedAt;
+            this.etag = etag;
+        }
+    }
+}
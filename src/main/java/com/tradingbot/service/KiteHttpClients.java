@@ -0,0 +1,97 @@
+package com.tradingbot.service;
+
+import com.tradingbot.config.KiteHttpProperties;
+import com.tradingbot.dto.HttpPoolStats;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keep-alive HTTP clients for the Kite REST API, one connection pool per endpoint class.
+ * <p>
+ * Orders, quotes, the bulk instrument download and account data each get their own pool and
+ * timeout budget, so a slow {@code /instruments/NFO} download or a burst of dashboard calls can
+ * never leave order placement waiting for a connection.
+ */
+@Slf4j
+@Component
+public class KiteHttpClients {
+
+    public enum Endpoint {
+        ORDERS, QUOTES, INSTRUMENTS, ACCOUNT
+    }
+
+    private final Map<Endpoint, PoolingHttpClientConnectionManager> pools = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, CloseableHttpClient> clients = new EnumMap<>(Endpoint.class);
+
+    public KiteHttpClients(KiteHttpProperties properties) {
+        register(Endpoint.ORDERS, properties.getOrders());
+        register(Endpoint.QUOTES, properties.getQuotes());
+        register(Endpoint.INSTRUMENTS, properties.getInstruments());
+        register(Endpoint.ACCOUNT, properties.getAccount());
+    }
+
+    public CloseableHttpClient client(Endpoint endpoint) {
+        return clients.get(endpoint);
+    }
+
+    /**
+     * Returns the current lease counts of every pool.
+     */
+    public List<HttpPoolStats> poolStats() {
+        List<HttpPoolStats> stats = new ArrayList<>(pools.size());
+        pools.forEach((endpoint, pool) -> {
+            PoolStats total = pool.getTotalStats();
+            stats.add(new HttpPoolStats(endpoint.name(), total.getLeased(), total.getPending(),
+                    total.getAvailable(), total.getMax()));
+        });
+        return stats;
+    }
+
+    private void register(Endpoint endpoint, KiteHttpProperties.PoolConfig config) {
+        // Every request goes to the same Kite host, so the per-route limit is the pool size.
+        PoolingHttpClientConnectionManager pool = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(config.getMaxConnections())
+                .setMaxConnPerRoute(config.getMaxConnections())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(config.getConnectTimeoutMs()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(config.getResponseTimeoutMs()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+        CloseableHttpClient client = HttpClients.custom()
+                .setConnectionManager(pool)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(config.getConnectionRequestTimeoutMs()))
+                        .setResponseTimeout(Timeout.ofMilliseconds(config.getResponseTimeoutMs()))
+                        .setConnectionKeepAlive(TimeValue.ofMilliseconds(config.getKeepAliveMs()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(config.getIdleEvictMs()))
+                .build();
+        pools.put(endpoint, pool);
+        clients.put(endpoint, client);
+        log.info("Configured {} HTTP pool: max {} connections, response timeout {} ms",
+                endpoint, config.getMaxConnections(), config.getResponseTimeoutMs());
+    }
+
+    @PreDestroy
+    void close() {
+        clients.values().forEach(client -> client.close(CloseMode.GRACEFUL));
+    }
+}
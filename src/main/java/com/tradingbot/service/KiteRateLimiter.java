@@ -0,0 +1,155 @@
+package com.tradingbot.service;
+
+import com.tradingbot.exception.RateLimitExceededException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Client-side token buckets that keep {@link KiteService} under Kite's per-second API limits.
+ * <p>
+ * Kite limits order placement, quotes and everything else separately, so each of those has its
+ * own bucket. Every caller also names a {@link Lane}: while a higher lane is waiting on a bucket,
+ * lower lanes cannot take its tokens. Each lane only queues for its configured budget; a call
+ * that cannot get a token in time is shed with {@link RateLimitExceededException} rather than
+ * being sent into a 429.
+ */
+@Slf4j
+@Component
+public class KiteRateLimiter {
+
+    /**
+     * Priority lanes, highest first.
+     */
+    public enum Lane {
+        ORDER, QUOTE, BULK
+    }
+
+    private final Map<KiteHttpClients.Endpoint, TokenBucket> buckets = new EnumMap<>(KiteHttpClients.Endpoint.class);
+    private final Map<Lane, Long> maxWaitNanos = new EnumMap<>(Lane.class);
+    private final Map<Lane, AtomicLong> shed = new EnumMap<>(Lane.class);
+
+    public KiteRateLimiter(@Value("${trading.rate-limit.orders-per-second:10}") double ordersPerSecond,
+                           @Value("${trading.rate-limit.quotes-per-second:1}") double quotesPerSecond,
+                           @Value("${trading.rate-limit.other-per-second:10}") double otherPerSecond,
+                           @Value("${trading.rate-limit.order-max-wait-ms:2000}") long orderMaxWaitMs,
+                           @Value("${trading.rate-limit.quote-max-wait-ms:1000}") long quoteMaxWaitMs,
+                           @Value("${trading.rate-limit.bulk-max-wait-ms:250}") long bulkMaxWaitMs) {
+        TokenBucket other = new TokenBucket(otherPerSecond);
+        buckets.put(KiteHttpClients.Endpoint.ORDERS, new TokenBucket(ordersPerSecond));
+        buckets.put(KiteHttpClients.Endpoint.QUOTES, new TokenBucket(quotesPerSecond));
+        buckets.put(KiteHttpClients.Endpoint.INSTRUMENTS, other);
+        buckets.put(KiteHttpClients.Endpoint.ACCOUNT, other);
+        maxWaitNanos.put(Lane.ORDER, TimeUnit.MILLISECONDS.toNanos(orderMaxWaitMs));
+        maxWaitNanos.put(Lane.QUOTE, TimeUnit.MILLISECONDS.toNanos(quoteMaxWaitMs));
+        maxWaitNanos.put(Lane.BULK, TimeUnit.MILLISECONDS.toNanos(bulkMaxWaitMs));
+        for (Lane lane : Lane.values()) {
+            shed.put(lane, new AtomicLong());
+        }
+    }
+
+    /**
+     * Blocks until a request to {@code endpoint} may be sent on {@code lane}.
+     *
+     * @throws RateLimitExceededException when the lane's wait budget runs out first
+     */
+    public void acquire(KiteHttpClients.Endpoint endpoint, Lane lane) {
+        boolean acquired;
+        try {
+            acquired = buckets.get(endpoint).acquire(lane, maxWaitNanos.get(lane));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            shed.get(lane).incrementAndGet();
+            log.warn("Shedding {} request to {}: rate limit reached", lane, endpoint);
+            throw new RateLimitExceededException("Kite " + endpoint + " rate limit reached for " + lane + " lane");
+        }
+    }
+
+    /**
+     * Returns how many requests each lane has shed since startup.
+     */
+    public Map<Lane, Long> shedCounts() {
+        Map<Lane, Long> counts = new EnumMap<>(Lane.class);
+        shed.forEach((lane, count) -> counts.put(lane, count.get()));
+        return counts;
+    }
+
+    /**
+     * A token bucket refilled continuously at {@code permitsPerSecond}, holding at most one
+     * second's worth of tokens, with per-lane waiter counts for priority.
+     */
+    static final class TokenBucket {
+        private static final long PRIORITY_RECHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+        private final double permitsPerNano;
+        private final double capacity;
+        private final int[] waiting = new int[Lane.values().length];
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+        private double tokens;
+        private long refilledAt;
+
+        TokenBucket(double permitsPerSecond) {
+            this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = Math.max(1.0, permitsPerSecond);
+            this.tokens = capacity;
+            this.refilledAt = System.nanoTime();
+        }
+
+        boolean acquire(Lane lane, long maxWaitNanos) throws InterruptedException {
+            lock.lock();
+            try {
+                long deadline = System.nanoTime() + maxWaitNanos;
+                waiting[lane.ordinal()]++;
+                try {
+                    while (true) {
+                        long now = System.nanoTime();
+                        refill(now);
+                        boolean yielding = higherLaneWaiting(lane);
+                        if (tokens >= 1.0 && !yielding) {
+                            tokens -= 1.0;
+                            return true;
+                        }
+                        long remaining = deadline - now;
+                        if (remaining <= 0) {
+                            return false;
+                        }
+                        long untilToken = tokens >= 1.0
+                                ? PRIORITY_RECHECK_NANOS
+                                : (long) Math.ceil((1.0 - tokens) / permitsPerNano);
+                        changed.awaitNanos(Math.min(remaining, untilToken));
+                    }
+                } finally {
+                    waiting[lane.ordinal()]--;
+                    changed.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean higherLaneWaiting(Lane lane) {
+            for (int i = 0; i < lane.ordinal(); i++) {
+                if (waiting[i] > 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * permitsPerNano);
+            refilledAt = now;
+        }
+    }
+}
@@ -11,14 +11,19 @@ import com.tradingbot.entity.Order;
 import com.tradingbot.entity.Position;
 import com.tradingbot.repository.OrderRepository;
 import com.tradingbot.repository.PositionRepository;
+import jakarta.annotation.PostConstruct;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.HttpResponseException;
 import org.apache.hc.client5.http.classic.methods.HttpGet;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.entity.UrlEncodedFormEntity;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpStatus;
 import org.apache.hc.core5.http.NameValuePair;
+import org.apache.hc.core5.http.io.HttpClientResponseHandler;
 import org.apache.hc.core5.http.message.BasicNameValuePair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,19 +32,27 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.ZoneId;
 import java.util.*;
 import java.time.LocalDate;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 public class KiteService {
     private static final Logger logger = LoggerFactory.getLogger(KiteService.class);
+    private static final String UNDERLYING_BANKNIFTY = "BANKNIFTY";
+    /** Kite accepts up to 1000 instruments in a single /quote/ltp request. */
+    private static final int MAX_LTP_INSTRUMENTS_PER_REQUEST = 1000;
 
     @Autowired
     private KiteConfig kiteConfig;
@@ -55,22 +68,59 @@ public class KiteService {
     @Autowired
     KiteTickerService kiteTickerService;
 
+    @Value("${trading.instruments.underlyings:BANKNIFTY}")
+    private String[] instrumentUnderlyings;
+
+    @Value("${trading.instruments.refresh-cutoff:08:30}")
+    private String instrumentRefreshCutoff;
+
     private String accessToken;
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private final CloseableHttpClient httpClient = HttpClients.createDefault();
 
     // Paper trading storage
     private final Map<String, PaperTrade> paperTrades = new ConcurrentHashMap<>();
-    private int paperOrderIdCounter = 1000;
+    private final AtomicInteger paperOrderIdCounter = new AtomicInteger(1000);
     private final OrderRepository orderRepository;
     private final PositionRepository positionRepository;
+    private final InstrumentSnapshotStore instrumentSnapshotStore;
+    private final LtpCache ltpCache;
+    private final KiteHttpClients httpClients;
+    private final KiteRateLimiter rateLimiter;
 
     @Autowired
     TradingUtilityService tradingUtilityService;
 
-    public KiteService(OrderRepository orderRepository, PositionRepository positionRepository) {
+    public KiteService(OrderRepository orderRepository, PositionRepository positionRepository,
+                       InstrumentSnapshotStore instrumentSnapshotStore, LtpCache ltpCache,
+                       KiteHttpClients httpClients, KiteRateLimiter rateLimiter) {
         this.orderRepository = orderRepository;
         this.positionRepository = positionRepository;
+        this.instrumentSnapshotStore = instrumentSnapshotStore;
+        this.ltpCache = ltpCache;
+        this.httpClients = httpClients;
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * Warm-starts the instrument master from today's on-disk snapshot, if one exists.
+     */
+    @PostConstruct
+    void loadInstrumentSnapshot() {
+        LocalDateTime latestDump = latestDumpTime(LocalDateTime.now());
+        instrumentSnapshotStore.load(latestDump.toLocalDate())
+                .filter(snapshot -> !snapshot.getLoadedAt().isBefore(latestDump))
+                .ifPresent(snapshot -> {
+                    instrumentRefreshLock.lock();
+                    try {
+                        instrumentMaster = snapshot.getMaster();
+                        instrumentsLoadedAt = snapshot.getLoadedAt();
+                        instrumentsETag = snapshot.getEtag();
+                    } finally {
+                        instrumentRefreshLock.unlock();
+                    }
+                    logger.info("Loaded {} instruments from snapshot taken at {}",
+                            instrumentMaster.size(), instrumentsLoadedAt);
+                });
     }
 
     public String getLoginUrl(String requestToken) {
@@ -87,7 +137,7 @@ public class KiteService {
             );
             post.setEntity(new UrlEncodedFormEntity(params));
 
-            String response = httpClient.execute(post, httpResponse -> {
+            String response = execute(KiteHttpClients.Endpoint.ACCOUNT, KiteRateLimiter.Lane.BULK, post, httpResponse -> {
                 return new String(httpResponse.getEntity().getContent().readAllBytes());
             });
 
@@ -110,7 +160,7 @@ public class KiteService {
             HttpGet get = new HttpGet(kiteConfig.getBaseUrl() + "/user/margins");
             get.setHeader("Authorization", "token " + kiteConfig.getKey() + ":" + accessToken);
 
-            String response = httpClient.execute(get, httpResponse -> {
+            String response = execute(KiteHttpClients.Endpoint.ACCOUNT, KiteRateLimiter.Lane.BULK, get, httpResponse -> {
                 return new String(httpResponse.getEntity().getContent().readAllBytes());
             });
 
@@ -162,7 +212,7 @@ public class KiteService {
             );
             post.setEntity(new UrlEncodedFormEntity(params));
 
-            String response = httpClient.execute(post, httpResponse -> {
+            String response = execute(KiteHttpClients.Endpoint.ORDERS, KiteRateLimiter.Lane.ORDER, post, httpResponse -> {
                 return new String(httpResponse.getEntity().getContent().readAllBytes());
             });
 
@@ -183,7 +233,7 @@ public class KiteService {
     private String placePaperOrder(String symbol, String transactionType, int quantity, String orderType, BigDecimal price) {
         log.info("placePaperOrder() - Symbol: {}, Type: {}, Qty: {}", symbol, transactionType, quantity);
         try {
-            String paperOrderId = "PAPER_" + (paperOrderIdCounter++);
+            String paperOrderId = "PAPER_" + paperOrderIdCounter.getAndIncrement();
 
             BigDecimal marketPrice = getLastPrice(symbol);
             log.info("LTP : "+marketPrice);
@@ -220,30 +270,18 @@ public class KiteService {
         }
     }
 
-    private NfoInstrument getInstrument(String nfoData, int atmStrike, String instrumentType, LocalDate selectedExpiryDate) {
-        List<NfoInstrument> nfoInstruments = new ArrayList<>();
-        for (Map.Entry<String, LocalDate> entry : bankNiftyExpiries.entrySet()) {
-            String[] fields1 = entry.getKey().split(",");
-            if (fields1.length > 10 && fields1[2].startsWith("BANKNIFTY") &&
-                    fields1[9].equals(instrumentType) && LocalDate.parse(fields1[5]).isEqual(selectedExpiryDate) &&
-                    Integer.parseInt(fields1[6]) == atmStrike) {
-                NfoInstrument nfoInstrument = new NfoInstrument();
-                nfoInstrument.setInstrumentToken(fields1[0]); // Updated setter
-                nfoInstrument.setExchangeToken(fields1[1]); // Updated setter
-                nfoInstrument.setTradingSymbol(fields1[2]); // Updated setter
-                nfoInstrument.setName(fields1[3]);
-                nfoInstrument.setLastPrice(fields1[4]); // Updated setter
-                nfoInstrument.setExpiry(fields1[5]);
-                nfoInstrument.setStrike(fields1[6]);
-                nfoInstrument.setTickSize(fields1[7]); // Updated setter
-                nfoInstrument.setLotSize(fields1[8]); // Updated setter
-                nfoInstrument.setInstrumentType(fields1[9]); // Updated setter
-                nfoInstrument.setSegment(fields1[10]);
-                nfoInstrument.setExchange(fields1[11]);
-                return nfoInstrument;
-            }
-        }
-        return null;
+    NfoInstrument getInstrument(int atmStrike, String instrumentType, LocalDate selectedExpiryDate) {
+        return instrumentMaster.find(UNDERLYING_BANKNIFTY, selectedExpiryDate, atmStrike, instrumentType);
+    }
+
+    /**
+     * Resolves a trading symbol to its instrument token using the current instrument master.
+     *
+     * @return the token, or {@code null} when the symbol is not in the master
+     */
+    public String getInstrumentToken(String tradingSymbol) {
+        NfoInstrument instrument = instrumentMaster.findBySymbol(tradingSymbol);
+        return instrument != null ? instrument.getInstrumentToken() : null;
     }
 
     /**
@@ -275,8 +313,11 @@ public class KiteService {
     public void updatePaperTradesPnL() {
         log.info("Updating P&L for {} paper trades", paperTrades.size());
 
-        for (PaperTrade trade : paperTrades.values()) {
-            BigDecimal currentPrice = getLastPrice(trade.getSymbol());
+        List<PaperTrade> trades = new ArrayList<>(paperTrades.values());
+        Map<String, BigDecimal> prices = getLastPrices(trades.stream().map(PaperTrade::getSymbol).collect(Collectors.toList()),
+                KiteRateLimiter.Lane.BULK);
+        for (PaperTrade trade : trades) {
+            BigDecimal currentPrice = prices.get(trade.getSymbol());
             if (!currentPrice.equals(BigDecimal.ZERO)) {
                 BigDecimal pnl = calculatePnL(trade, currentPrice);
                 trade.setPnl(pnl);
@@ -305,28 +346,95 @@ public class KiteService {
      */
     public void clearPaperTrades() {
         paperTrades.clear();
-        paperOrderIdCounter = 1000;
+        paperOrderIdCounter.set(1000);
         log.info("All paper trades cleared");
     }
 
     public BigDecimal getLastPrice(String symbol) {
-        //log.info("getLastPrice()");
+        return getLastPrices(List.of(symbol)).get(symbol);
+    }
+
+    /**
+     * Fetches last traded prices for several NFO symbols. Prices the websocket has delivered
+     * recently are served from the {@link LtpCache}; the rest are combined into as few
+     * {@code /quote/ltp} requests as Kite's per-request instrument limit allows.
+     *
+     * @return a price for every requested symbol; symbols that could not be quoted map to zero
+     */
+    public Map<String, BigDecimal> getLastPrices(Collection<String> symbols) {
+        return getLastPrices(symbols, KiteRateLimiter.Lane.QUOTE);
+    }
+
+    private Map<String, BigDecimal> getLastPrices(Collection<String> symbols, KiteRateLimiter.Lane lane) {
+        Map<String, BigDecimal> prices = new HashMap<>();
+        List<String> uncached = new ArrayList<>();
+        long now = System.nanoTime();
+        for (String symbol : new LinkedHashSet<>(symbols)) {
+            double cached = ltpCache.getIfFresh(tokenForSymbol(symbol), now);
+            if (Double.isNaN(cached)) {
+                uncached.add(symbol);
+            } else {
+                prices.put(symbol, BigDecimal.valueOf(cached));
+            }
+        }
+        for (int from = 0; from < uncached.size(); from += MAX_LTP_INSTRUMENTS_PER_REQUEST) {
+            fetchLastPrices(uncached.subList(from, Math.min(from + MAX_LTP_INSTRUMENTS_PER_REQUEST, uncached.size())), lane, prices);
+        }
+        for (String symbol : uncached) {
+            prices.putIfAbsent(symbol, BigDecimal.ZERO);
+        }
+        return prices;
+    }
+
+    /**
+     * Resolves a symbol to its token for the LTP cache, learning the mapping from the
+     * instrument master the first time a symbol is seen.
+     */
+    private long tokenForSymbol(String symbol) {
+        long token = ltpCache.tokenFor(symbol);
+        if (token == 0L) {
+            NfoInstrument instrument = instrumentMaster.findBySymbol(symbol);
+            if (instrument != null) {
+                token = Long.parseLong(instrument.getInstrumentToken());
+                ltpCache.mapSymbol(symbol, token);
+            }
+        }
+        return token;
+    }
+
+    private void fetchLastPrices(List<String> symbols, KiteRateLimiter.Lane lane, Map<String, BigDecimal> prices) {
+        //log.info("fetchLastPrices()");
         try {
-            HttpGet get = new HttpGet(kiteConfig.getBaseUrl() + "/quote/ltp?i=NFO:" + symbol);
+            String query = symbols.stream().map(symbol -> "i=NFO:" + symbol).collect(Collectors.joining("&"));
+            HttpGet get = new HttpGet(kiteConfig.getBaseUrl() + "/quote/ltp?" + query);
             get.setHeader("Authorization", "token " + kiteConfig.getKey() + ":" + accessToken);
 
-            String response = httpClient.execute(get, httpResponse -> {
+            String response = execute(KiteHttpClients.Endpoint.QUOTES, lane, get, httpResponse -> {
                 return new String(httpResponse.getEntity().getContent().readAllBytes());
             });
 
             JsonNode jsonResponse = objectMapper.readTree(response);
             if (jsonResponse.has("data")) {
-                return new BigDecimal(jsonResponse.get("data").get("NFO:" + symbol).get("last_price").asText());
+                JsonNode data = jsonResponse.get("data");
+                for (String symbol : symbols) {
+                    JsonNode quote = data.get("NFO:" + symbol);
+                    if (quote != null && quote.has("last_price")) {
+                        prices.put(symbol, new BigDecimal(quote.get("last_price").asText()));
+                    }
+                }
             }
         } catch (Exception e) {
-            logger.error("Error fetching last price for " + symbol, e);
+            logger.error("Error fetching last prices for " + symbols, e);
         }
-        return BigDecimal.ZERO;
+    }
+
+    /**
+     * Sends a request on the endpoint's connection pool once the rate limiter admits it on {@code lane}.
+     */
+    private <T> T execute(KiteHttpClients.Endpoint endpoint, KiteRateLimiter.Lane lane, ClassicHttpRequest request,
+                          HttpClientResponseHandler<T> handler) throws IOException {
+        rateLimiter.acquire(endpoint, lane);
+        return httpClients.client(endpoint).execute(request, handler);
     }
 
     private String generateChecksum(String requestToken) {
@@ -358,24 +466,22 @@ public class KiteService {
             // Calculate ATM strike
             int atmStrike = calculateATMStrike(currentPrice);
 
-            // Get current expiry from NSE data
-            String nfoData = getCurrentBankNiftyExpiry();
-
-//            log.info("Banknifty current expiry : " + nfoData);
-            if (nfoData == null) {
+            // Make sure the instrument master is loaded for the current expiry
+            LocalDate currentExpiry = getCurrentBankNiftyExpiry();
+            if (currentExpiry == null) {
                 logger.error("Failed to fetch current expiry");
                 return Collections.emptyList();
             }
 
             // Build symbols
             List<NfoInstrument> symbols = new ArrayList<>();
-//            String ceSymbol = "BANKNIFTY" + nfoData + atmStrike + "CE";
-            NfoInstrument nfoInstrumentCE = getInstrument(nfoData, atmStrike, "CE",selectedExpiryDate);
-//            String peSymbol = "BANKNIFTY" + nfoData + atmStrike + "PE";
-            NfoInstrument nfoInstrumentPE = getInstrument(nfoData, atmStrike, "PE",selectedExpiryDate);
-            assert nfoInstrumentCE != null;
+            NfoInstrument nfoInstrumentCE = getInstrument(atmStrike, "CE", selectedExpiryDate);
+            NfoInstrument nfoInstrumentPE = getInstrument(atmStrike, "PE", selectedExpiryDate);
+            if (nfoInstrumentCE == null || nfoInstrumentPE == null) {
+                logger.error("No ATM straddle listed for strike {} and expiry {}", atmStrike, selectedExpiryDate);
+                return Collections.emptyList();
+            }
             log.info("ceSymbol : " + nfoInstrumentCE.getTradingSymbol());
-            assert nfoInstrumentPE != null;
             log.info("peSymbol : " + nfoInstrumentPE.getTradingSymbol());
 
             symbols.add(nfoInstrumentCE);
@@ -398,7 +504,7 @@ public class KiteService {
             get.setHeader("Authorization", "token " + kiteConfig.getKey() + ":" + accessToken);
             get.setHeader("X-Kite-Version", "3");
 
-            String response = httpClient.execute(get, httpResponse -> {
+            String response = execute(KiteHttpClients.Endpoint.QUOTES, KiteRateLimiter.Lane.QUOTE, get, httpResponse -> {
                 return new String(httpResponse.getEntity().getContent().readAllBytes());
             });
 
@@ -422,26 +528,54 @@ public class KiteService {
         return strike;
     }
 
-    private Map<String, LocalDate> bankNiftyExpiries = new HashMap<>();
-    private LocalDateTime expiryDataLastUpdated = null;
+    private volatile InstrumentMaster instrumentMaster = InstrumentMaster.EMPTY;
+    private volatile LocalDateTime instrumentsLoadedAt = null;
+    private volatile String instrumentsETag = null;
+    /** Held while the instrument master is downloaded, so only one refresh runs at a time. */
+    private final ReentrantLock instrumentRefreshLock = new ReentrantLock();
 
-    public String getCurrentBankNiftyExpiry() {
+    public LocalDate getCurrentBankNiftyExpiry() {
         log.info("getCurrentBankNiftyExpiry()");
-        // Refresh expiry data if older than 1 hour or empty
-        if (expiryDataLastUpdated == null ||
-                expiryDataLastUpdated.isBefore(LocalDateTime.now().minusHours(1)) ||
-                bankNiftyExpiries.isEmpty()) {
+        refreshInstrumentsIfStale();
+
+        // Find nearest expiry
+        return instrumentMaster.nearestExpiry(UNDERLYING_BANKNIFTY, LocalDate.now());
+    }
 
-            refreshExpiryData();
+    /**
+     * Kite regenerates the instrument dump once per trading day, so the master is downloaded
+     * only when it is missing or was loaded before the latest dump cutoff.
+     * <p>
+     * Only one caller downloads at a time. While it does, callers that already have a master
+     * keep using it instead of waiting; only a caller with no master at all waits for the download.
+     */
+    private void refreshInstrumentsIfStale() {
+        if (isInstrumentMasterCurrent()) {
+            return;
+        }
+        if (instrumentMaster.isEmpty()) {
+            instrumentRefreshLock.lock();
+        } else if (!instrumentRefreshLock.tryLock()) {
+            return;
+        }
+        try {
+            if (!isInstrumentMasterCurrent()) {
+                refreshExpiryData();
+            }
+        } finally {
+            instrumentRefreshLock.unlock();
         }
+    }
 
-        // Find nearest expiry
-        LocalDate today = LocalDate.now();
-        return bankNiftyExpiries.entrySet().stream()
-                .filter(entry -> !entry.getValue().isBefore(today))
-                .min(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
-                .orElse(null);
+    private boolean isInstrumentMasterCurrent() {
+        LocalDateTime loadedAt = instrumentsLoadedAt;
+        return !instrumentMaster.isEmpty() && loadedAt != null
+                && !loadedAt.isBefore(latestDumpTime(LocalDateTime.now()));
+    }
+
+    private LocalDateTime latestDumpTime(LocalDateTime now) {
+        LocalDateTime todaysDump = now.toLocalDate().atTime(LocalTime.parse(instrumentRefreshCutoff));
+        return now.isBefore(todaysDump) ? todaysDump.minusDays(1) : todaysDump;
     }
 
     private void refreshExpiryData() {
@@ -449,71 +583,80 @@ public class KiteService {
         try {
             HttpGet get = new HttpGet(kiteConfig.getBaseUrl() + "/instruments/NFO");
             get.setHeader("Authorization", "token " + kiteConfig.getKey() + ":" + accessToken);
+            if (instrumentsETag != null && !instrumentMaster.isEmpty()) {
+                get.setHeader(HttpHeaders.IF_NONE_MATCH, instrumentsETag);
+            }
 
-            String response = httpClient.execute(get, httpResponse -> {
-                return new String(httpResponse.getEntity().getContent().readAllBytes());
+            // The ETag is only kept once its dump has replaced the master; keeping it for a dump
+            // that was rejected would let If-None-Match pin the old master for the rest of the day.
+            AtomicReference<String> downloadedETag = new AtomicReference<>();
+            InstrumentMaster refreshed = execute(KiteHttpClients.Endpoint.INSTRUMENTS, KiteRateLimiter.Lane.BULK, get, httpResponse -> {
+                if (httpResponse.getCode() == HttpStatus.SC_NOT_MODIFIED) {
+                    return null;
+                }
+                if (httpResponse.getCode() != HttpStatus.SC_OK) {
+                    throw new HttpResponseException(httpResponse.getCode(), httpResponse.getReasonPhrase());
+                }
+                Header etag = httpResponse.getFirstHeader(HttpHeaders.ETAG);
+                downloadedETag.set(etag != null ? etag.getValue() : null);
+                return new NfoInstrumentParser(new LinkedHashSet<>(Arrays.asList(instrumentUnderlyings)))
+                        .parse(httpResponse.getEntity().getContent());
             });
 
-            bankNiftyExpiries.clear();
-            String[] lines = response.split("\n");
-
-            for (String line : lines) {
-                String[] fields = line.split(",");
-                if (fields.length > 10 && fields[2].startsWith("BANKNIFTY") &&
-                        (fields[9].equals("CE") || fields[9].equals("PE"))) {
-
-                    LocalDate expiry = LocalDate.parse(fields[5]);
-                    bankNiftyExpiries.put(line, expiry);
-                }
+            boolean modified = refreshed != null;
+            if (!modified) {
+                logger.info("Instrument dump not modified since last download");
+            } else if (refreshed.isEmpty()) {
+                logger.warn("Instrument dump contained no options for {}; keeping previous master",
+                        Arrays.toString(instrumentUnderlyings));
+                return;
+            } else {
+                instrumentMaster = refreshed;
+                instrumentsETag = downloadedETag.get();
             }
-
-            expiryDataLastUpdated = LocalDateTime.now();
-            logger.info("Refreshed expiry data. Found {} unique expiries", bankNiftyExpiries.size());
+            instrumentsLoadedAt = LocalDateTime.now();
+            LocalDate dumpDate = latestDumpTime(instrumentsLoadedAt).toLocalDate();
+            // An unchanged dump only needs a snapshot when none has been written for this dump date yet.
+            if (modified || !instrumentSnapshotStore.exists(dumpDate)) {
+                instrumentSnapshotStore.save(dumpDate, instrumentMaster, instrumentsLoadedAt, instrumentsETag);
+            }
+            logger.info("Refreshed expiry data. Indexed {} instruments across {} expiries",
+                    instrumentMaster.size(), instrumentMaster.expiries(UNDERLYING_BANKNIFTY).size());
 
         } catch (Exception e) {
             logger.error("Error refreshing expiry data", e);
         }
     }
 
-    public List<LocalDate> getUpcomingExpiryDates(int i) {
-        Map<String, LocalDate> expiryDates = new HashMap<>();
-        try {
-            HttpGet get = new HttpGet(kiteConfig.getBaseUrl() + "/instruments/NFO");
-            get.setHeader("Authorization", "token " + kiteConfig.getKey() + ":" + accessToken);
-
-            String response = httpClient.execute(get, httpResponse -> {
-                return new String(httpResponse.getEntity().getContent().readAllBytes());
-            });
-            String[] lines = response.split("\n");
-            log.info("Total line : "+lines.length);
-            for (String line : lines) {
-                String[] fields = line.split(",");
-                if (fields.length > 10 && fields[2].startsWith("BANKNIFTY")){
-                    expiryDates.put(fields[5], LocalDate.parse(fields[5]));
-                }
-            }
-        } catch (Exception e) {
-            logger.error("Error refreshing expiry data", e);
-        }
-        List<LocalDate> upcomingExpiries = new ArrayList<>();
-        for (Map.Entry<String, LocalDate> entry : expiryDates.entrySet()) {
-            String key = entry.getKey();
-            LocalDate expiryDate = entry.getValue();
-            if (expiryDate.isAfter(LocalDate.now())) {
-                    upcomingExpiries.add(expiryDate);
-            }
-        }
+    public List<LocalDate> getUpcomingExpiryDates(int count) {
+        refreshInstrumentsIfStale();
+        LocalDate today = LocalDate.now();
+        List<LocalDate> upcomingExpiries = instrumentMaster.expiries(UNDERLYING_BANKNIFTY).stream()
+                .filter(expiryDate -> expiryDate.isAfter(today))
+                .limit(count)
+                .collect(Collectors.toList());
         log.info("upcomingExpiries() : " + upcomingExpiries.size());
         return upcomingExpiries;
     }
 
+    /** The day's orders, or an empty list when the fetch failed. */
     public List<Map<String, Object>> fetchOrders() {
+        List<Map<String, Object>> orders = loadOrders();
+        return orders != null ? orders : Collections.emptyList();
+    }
+
+    /**
+     * Fetches the day's orders.
+     *
+     * @return the orders, or {@code null} when the fetch failed
+     */
+    public List<Map<String, Object>> loadOrders() {
         log.info("Fetching orders from Kite API");
         try {
             HttpGet get = new HttpGet(kiteConfig.getBaseUrl() + "/orders");
             get.setHeader("Authorization", "token " + kiteConfig.getKey() + ":" + accessToken);
 
-            String response = httpClient.execute(get, httpResponse ->
+            String response = execute(KiteHttpClients.Endpoint.ACCOUNT, KiteRateLimiter.Lane.BULK, get, httpResponse ->
                     new String(httpResponse.getEntity().getContent().readAllBytes()));
 
             JsonNode jsonResponse = objectMapper.readTree(response);
@@ -521,19 +664,38 @@ public class KiteService {
                 return objectMapper.convertValue(jsonResponse.get("data"),
                         new TypeReference<List<Map<String, Object>>>() {});
             }
+            log.error("Orders response has no data: {}", response);
         } catch (Exception e) {
             log.error("Error fetching orders", e);
         }
-        return Collections.emptyList();
+        return null;
     }
 
+    /** Day and net positions, both empty when the fetch failed. */
     public Map<String, List<Map<String, Object>>> fetchPositions() {
+        Map<String, List<Map<String, Object>>> positions = loadPositions();
+        if (positions != null) {
+            return positions;
+        }
+        // ensure keys exist for the template
+        Map<String, List<Map<String, Object>>> empty = new HashMap<>();
+        empty.put("day", Collections.emptyList());
+        empty.put("net", Collections.emptyList());
+        return empty;
+    }
+
+    /**
+     * Fetches day and net positions, each under its own key.
+     *
+     * @return the positions, or {@code null} when the fetch failed
+     */
+    public Map<String, List<Map<String, Object>>> loadPositions() {
         log.info("Fetching positions from Kite API");
         try {
             HttpGet get = new HttpGet(kiteConfig.getBaseUrl() + "/positions");
             get.setHeader("Authorization", "token " + kiteConfig.getKey() + ":" + accessToken);
 
-            String response = httpClient.execute(get, httpResponse ->
+            String response = execute(KiteHttpClients.Endpoint.ACCOUNT, KiteRateLimiter.Lane.BULK, get, httpResponse ->
                     new String(httpResponse.getEntity().getContent().readAllBytes()));
 
             JsonNode jsonResponse = objectMapper.readTree(response);
@@ -556,14 +718,11 @@ public class KiteService {
                 }
                 return positions;
             }
+            log.error("Positions response has no data: {}", response);
         } catch (Exception e) {
             log.error("Error fetching positions", e);
         }
-        // ensure keys exist for the template
-        Map<String, List<Map<String, Object>>> empty = new HashMap<>();
-        empty.put("day", Collections.emptyList());
-        empty.put("net", Collections.emptyList());
-        return empty;
+        return null;
     }
 
     @Transactional
@@ -605,7 +764,7 @@ public class KiteService {
         log.info("Persisted {} positions", entities.size());
     }
 
-    private Order mapToOrderEntity(Map<String, Object> src) {
+    Order mapToOrderEntity(Map<String, Object> src) {
         try {
             if (src == null) return null;
 
@@ -632,7 +791,7 @@ public class KiteService {
         }
     }
 
-    private Position mapToPositionEntity(Map<String, Object> src) {
+    Position mapToPositionEntity(Map<String, Object> src) {
         try {
             if (src == null) return null;
 
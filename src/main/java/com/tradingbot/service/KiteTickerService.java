@@ -1,7 +1,7 @@
 package com.tradingbot.service;
 
-     import com.tradingbot.dto.PriceTick;
-     import com.tradingbot.event.PriceTickEvent;
+     import com.tradingbot.event.TickBuffer;
+     import com.tradingbot.event.TickBus;
      import com.zerodhatech.models.Order;
      import com.zerodhatech.models.Tick;
      import com.zerodhatech.ticker.KiteTicker;
@@ -30,6 +30,8 @@ package com.tradingbot.service;
          private static final String DISCONNECTING_WEBSOCKET = "Disconnecting Kite Ticker WebSocket...";
          private static final String SUBSCRIBING_TOKENS = "Subscribing to new tokens on active connection.";
          private static final String UNSUBSCRIBING_TOKENS = "Unsubscribing from tokens on active connection.";
+         /** Sized for a full-mode frame covering every strike we are likely to subscribe to. */
+         private static final int TICK_BUFFER_CAPACITY = 512;
 
          private KiteTicker kiteTicker;
          private final Set<Long> subscribedTokens = ConcurrentHashMap.newKeySet();
@@ -38,6 +40,17 @@ package com.tradingbot.service;
          @Autowired
          private ApplicationEventPublisher eventPublisher;
 
+         @Autowired
+         private TickBus tickBus;
+
+         @Autowired
+         private LtpCache ltpCache;
+
+         @Autowired
+         private TickRecorder tickRecorder;
+
+         private final TickBuffer tickBuffer = new TickBuffer(TICK_BUFFER_CAPACITY);
+
          /**
           * Connects to the Kite Ticker WebSocket.
           * This method is idempotent and safe to call multiple times.
@@ -81,16 +94,31 @@ package com.tradingbot.service;
              isConnected.set(false);
          }
 
+         /**
+          * Refreshes the LTP cache and records each tick to the journal, then copies the frame into
+          * the reusable tick buffer and dispatches it on the tick bus.
+          * Called on the KiteTicker callback thread, which is the only writer of {@link #tickBuffer}.
+          */
          void processTicks(List<Tick> ticks) {
              if (ticks.isEmpty()) {
                  return;
              }
-//             log.info("processTicks() called with {} ticks", ticks.size());
-//             for (Tick tick : ticks) {
-//                 log.info(tick.getInstrumentToken()+" "+tick.getLastTradedPrice());
-//                 PriceTick priceTick = new PriceTick(tick.getInstrumentToken(), tick.getLastTradedPrice());
-//                 eventPublisher.publishEvent(new PriceTickEvent(this, priceTick));
-//             }
+             long receivedAt = System.nanoTime();
+             long receivedAtMillis = System.currentTimeMillis();
+             tickBuffer.clear();
+             for (int i = 0, n = ticks.size(); i < n; i++) {
+                 Tick tick = ticks.get(i);
+                 long timestamp = timestampOf(tick, receivedAtMillis);
+                 ltpCache.update(tick.getInstrumentToken(), tick.getLastTradedPrice(), receivedAt);
+                 tickRecorder.record(tick, timestamp, receivedAtMillis);
+                 tickBuffer.add(tick.getInstrumentToken(), tick.getLastTradedPrice(), timestamp);
+             }
+             tickBus.publish(tickBuffer);
+         }
+
+         private static long timestampOf(Tick tick, long receivedAtMillis) {
+             Date tickTimestamp = tick.getTickTimestamp();
+             return tickTimestamp != null ? tickTimestamp.getTime() : receivedAtMillis;
          }
 
          /**
@@ -113,7 +141,7 @@ package com.tradingbot.service;
          }
 
          /**
-          * Unsubscribes from a list of instrument tokens.
+          * Unsubscribes from every subscribed instrument token.
           */
          public void unsubscribe() {
              if (isConnected.get() && kiteTicker != null) {
@@ -122,16 +150,22 @@ package com.tradingbot.service;
                  kiteTicker.unsubscribe(tokens);
                  subscribedTokens.clear();
              }
-             /*Optional.ofNullable(tokens).filter(t -> !t.isEmpty()).ifPresent(validTokens -> {
+         }
+
+         /**
+          * Unsubscribes from a list of instrument tokens, keeping every other subscription.
+          * @param tokens A list of instrument tokens to unsubscribe from.
+          */
+         public void unsubscribe(List<Long> tokens) {
+             Optional.ofNullable(tokens).filter(t -> !t.isEmpty()).ifPresent(validTokens -> {
                  log.info("Request to unsubscribe from tokens: {}", validTokens);
                  subscribedTokens.removeAll(validTokens);
 
                  if (isConnected.get() && kiteTicker != null) {
                      log.info(UNSUBSCRIBING_TOKENS);
-                     kiteTicker.unsubscribe((ArrayList<Long>) subscribedTokens);
-                     subscribedTokens.clear();
+                     kiteTicker.unsubscribe(new ArrayList<>(validTokens));
                  }
-             });*/
+             });
          }
 
          /**
@@ -0,0 +1,127 @@
+package com.tradingbot.service;
+
+import com.tradingbot.util.Hashing;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free last-traded-price cache fed by websocket ticks.
+ * <p>
+ * Prices live in a fixed-capacity open-addressing table of primitives keyed by instrument token.
+ * A slot is claimed once per token with a CAS and never moves, so readers and the ticker thread
+ * never block each other. Each slot carries the local {@link System#nanoTime()} of its last
+ * update, which lets {@link KiteService#getLastPrice(String)} decide whether the cached price is
+ * fresh enough or it must fall back to REST.
+ * <p>
+ * The price is written before its timestamp and read after it, so a reader that sees a fresh
+ * timestamp also sees a price at least that recent.
+ */
+@Component
+public class LtpCache {
+
+    private static final long EMPTY = 0L;
+
+    private final AtomicLongArray tokens;
+    private final AtomicLongArray prices;
+    private final AtomicLongArray updatedAt;
+    private final int mask;
+    private final long maxAgeNanos;
+    private final Map<String, Long> symbolTokens = new ConcurrentHashMap<>();
+
+    public LtpCache(@Value("${trading.ltp-cache.capacity:4096}") int capacity,
+                    @Value("${trading.ltp-cache.max-age-ms:2000}") long maxAgeMillis) {
+        int size = Integer.highestOneBit(Math.max(16, capacity) - 1) << 1;
+        this.tokens = new AtomicLongArray(size);
+        this.prices = new AtomicLongArray(size);
+        this.updatedAt = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.maxAgeNanos = maxAgeMillis * 1_000_000L;
+    }
+
+    /**
+     * Records the latest price for a token. Returns false only when the table is full.
+     */
+    public boolean update(long instrumentToken, double lastTradedPrice, long nowNanos) {
+        int slot = claim(instrumentToken);
+        if (slot < 0) {
+            return false;
+        }
+        prices.set(slot, Double.doubleToRawLongBits(lastTradedPrice));
+        updatedAt.set(slot, nowNanos);
+        return true;
+    }
+
+    /**
+     * Returns the cached price if it was updated within the configured max age, otherwise {@code NaN}.
+     */
+    public double getIfFresh(long instrumentToken, long nowNanos) {
+        int slot = find(instrumentToken);
+        if (slot < 0) {
+            return Double.NaN;
+        }
+        long stamp = updatedAt.get(slot);
+        if (stamp == 0L || nowNanos - stamp > maxAgeNanos) {
+            return Double.NaN;
+        }
+        return Double.longBitsToDouble(prices.get(slot));
+    }
+
+    /**
+     * Returns the cached price regardless of age, or {@code NaN} when the token was never seen.
+     */
+    public double get(long instrumentToken) {
+        int slot = find(instrumentToken);
+        return slot < 0 || updatedAt.get(slot) == 0L ? Double.NaN : Double.longBitsToDouble(prices.get(slot));
+    }
+
+    public void mapSymbol(String tradingSymbol, long instrumentToken) {
+        symbolTokens.put(tradingSymbol, instrumentToken);
+    }
+
+    /**
+     * Returns the token mapped to a trading symbol, or {@code 0} when unknown.
+     */
+    public long tokenFor(String tradingSymbol) {
+        Long token = symbolTokens.get(tradingSymbol);
+        return token != null ? token : 0L;
+    }
+
+    private int find(long instrumentToken) {
+        int slot = Hashing.mix(instrumentToken) & mask;
+        for (int probes = 0; probes <= mask; probes++) {
+            long candidate = tokens.get(slot);
+            if (candidate == instrumentToken) {
+                return slot;
+            }
+            if (candidate == EMPTY) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int claim(long instrumentToken) {
+        int slot = Hashing.mix(instrumentToken) & mask;
+        for (int probes = 0; probes <= mask; probes++) {
+            long candidate = tokens.get(slot);
+            if (candidate == instrumentToken) {
+                return slot;
+            }
+            if (candidate == EMPTY) {
+                if (tokens.compareAndSet(slot, EMPTY, instrumentToken)) {
+                    return slot;
+                }
+                if (tokens.get(slot) == instrumentToken) {
+                    return slot;
+                }
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,249 @@
+package com.tradingbot.service;
+
+import com.tradingbot.dto.MtmSnapshot;
+import com.tradingbot.entity.Trade;
+import com.tradingbot.event.TickBus;
+import com.tradingbot.event.TickListener;
+import com.tradingbot.util.FixedPoint;
+import com.tradingbot.util.LongObjectTable;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tick-driven mark-to-market of open {@link Trade} legs, held in paise as {@code long}.
+ * <p>
+ * The engine follows the {@link PositionBook}: whenever the book changes it rebuilds a token-indexed
+ * table of legs and subscribes to their tokens on the {@link TickBus}. A tick then only touches the
+ * legs on its token. It re-marks each leg and pushes the change into the leg's straddle total and
+ * the day total, so reading any of them is a single atomic read. Legs are grouped into straddles by
+ * {@link StraddlePairing}, the same rule the strategy uses to exit them together.
+ */
+@Slf4j
+@Component
+public class MtmEngine implements TickListener {
+
+    private static final Leg[] NO_LEGS = new Leg[0];
+
+    private final PositionBook positionBook;
+    private final TickBus tickBus;
+    private final LtpCache ltpCache;
+    private final DailyPnLTracker dailyPnLTracker;
+
+    private final AtomicLong unrealizedPaise = new AtomicLong();
+    /** Current legs by trade identity, only replaced under {@code this}. */
+    private Map<Trade, Leg> legs = new IdentityHashMap<>();
+    private Map<String, Straddle> straddles = new HashMap<>();
+    private volatile LongObjectTable<Leg[]> byToken = LongObjectTable.empty();
+
+    public MtmEngine(PositionBook positionBook, TickBus tickBus, LtpCache ltpCache, DailyPnLTracker dailyPnLTracker) {
+        this.positionBook = positionBook;
+        this.tickBus = tickBus;
+        this.ltpCache = ltpCache;
+        this.dailyPnLTracker = dailyPnLTracker;
+    }
+
+    @PostConstruct
+    void start() {
+        positionBook.addChangeListener(this::rebuild);
+        rebuild();
+    }
+
+    @Override
+    public void onTick(long instrumentToken, double lastTradedPrice, long timestamp) {
+        Leg[] marked = byToken.getOrDefault(instrumentToken, NO_LEGS);
+        long ltpPaise = FixedPoint.toPaise(lastTradedPrice);
+        for (Leg leg : marked) {
+            leg.mark(ltpPaise);
+        }
+    }
+
+    /**
+     * Unrealized P&L of all open legs, in paise.
+     */
+    public long getUnrealizedPaise() {
+        return unrealizedPaise.get();
+    }
+
+    /**
+     * Realized plus unrealized P&L for the day, in paise.
+     */
+    public long getDayPaise() {
+        return dailyPnLTracker.getTodaysPnLPaise() + unrealizedPaise.get();
+    }
+
+    /**
+     * Unrealized P&L of one open trade in paise, or {@code 0} when it is not open.
+     */
+    public synchronized long getLegPaise(Trade trade) {
+        Leg leg = legs.get(trade);
+        return leg != null ? leg.mtmPaise : 0L;
+    }
+
+    public synchronized MtmSnapshot snapshot() {
+        List<MtmSnapshot.Leg> legViews = new ArrayList<>(legs.size());
+        for (Leg leg : legs.values()) {
+            legViews.add(leg.view());
+        }
+        List<MtmSnapshot.Straddle> straddleViews = new ArrayList<>(straddles.size());
+        straddles.forEach((key, straddle) ->
+                straddleViews.add(new MtmSnapshot.Straddle(key, List.copyOf(straddle.orderIds), straddle.mtmPaise.get())));
+        long unrealized = unrealizedPaise.get();
+        return new MtmSnapshot(legViews, straddleViews, unrealized, dailyPnLTracker.getTodaysPnLPaise() + unrealized);
+    }
+
+    /**
+     * Brings the leg table in line with the open trades in the book. Legs that stay open keep
+     * their marks; closed legs take their contribution out of the totals.
+     */
+    synchronized void rebuild() {
+        List<Trade> open = positionBook.openTrades();
+        Map<Trade, Leg> rebuilt = new IdentityHashMap<>();
+        Map<String, Straddle> rebuiltStraddles = new LinkedHashMap<>();
+        Map<Trade, String> straddleKeys = new IdentityHashMap<>();
+        StraddlePairing.group(open).forEach((key, straddleLegs) ->
+                straddleLegs.forEach(trade -> straddleKeys.put(trade, key)));
+        for (Trade trade : open) {
+            long token = PositionBook.parseToken(trade.getInstrumentToken());
+            if (token == 0L || trade.getEntryPrice() == null || trade.getQuantity() == null) {
+                continue;
+            }
+            String key = straddleKeys.get(trade);
+            Straddle straddle = rebuiltStraddles.computeIfAbsent(key, this::reuseStraddle);
+            Leg leg = legs.remove(trade);
+            if (leg == null || leg.straddle != straddle) {
+                if (leg != null) {
+                    leg.close();
+                }
+                leg = new Leg(trade, token, straddle);
+                double cached = ltpCache.get(token);
+                if (!Double.isNaN(cached)) {
+                    leg.mark(FixedPoint.toPaise(cached));
+                }
+            } else {
+                leg.refreshEntry();
+            }
+            rebuilt.put(trade, leg);
+            if (trade.getOrderId() != null) {
+                straddle.orderIds.add(trade.getOrderId());
+            }
+        }
+        // Whatever is left was closed or dropped from the book.
+        for (Leg closed : legs.values()) {
+            closed.close();
+        }
+        Set<Long> oldTokens = tokensOf(legs.values());
+        oldTokens.addAll(tokensOf(rebuilt.values()));
+        Map<Long, List<Leg>> grouped = new HashMap<>();
+        for (Leg leg : rebuilt.values()) {
+            grouped.computeIfAbsent(leg.instrumentToken, t -> new ArrayList<>()).add(leg);
+        }
+        Map<Long, Leg[]> index = new HashMap<>();
+        grouped.forEach((token, tokenLegs) -> index.put(token, tokenLegs.toArray(NO_LEGS)));
+
+        legs = rebuilt;
+        straddles = rebuiltStraddles;
+        byToken = LongObjectTable.of(index);
+        for (Long token : oldTokens) {
+            if (index.containsKey(token)) {
+                tickBus.register(token, this);
+            } else {
+                tickBus.unregister(token, this);
+            }
+        }
+    }
+
+    private Straddle reuseStraddle(String key) {
+        Straddle straddle = straddles.getOrDefault(key, new Straddle());
+        straddle.orderIds.clear();
+        return straddle;
+    }
+
+    private static Set<Long> tokensOf(Iterable<Leg> legs) {
+        Set<Long> tokens = new HashSet<>();
+        for (Leg leg : legs) {
+            tokens.add(leg.instrumentToken);
+        }
+        return tokens;
+    }
+
+    private static final class Straddle {
+        private final AtomicLong mtmPaise = new AtomicLong();
+        private final List<String> orderIds = new ArrayList<>();
+    }
+
+    /**
+     * Mark state of one open trade. Marks come from the ticker thread while rebuilds come from
+     * order threads, so each leg serializes its own updates; the lock is uncontended on the tick path.
+     */
+    private final class Leg {
+        private final Trade trade;
+        private final long instrumentToken;
+        private final Straddle straddle;
+        private long entryPaise;
+        private int signedQuantity;
+        private long ltpPaise;
+        private volatile long mtmPaise;
+        private boolean marked;
+        private boolean closed;
+
+        Leg(Trade trade, long instrumentToken, Straddle straddle) {
+            this.trade = trade;
+            this.instrumentToken = instrumentToken;
+            this.straddle = straddle;
+            readEntry();
+        }
+
+        synchronized void mark(long ltp) {
+            if (closed) {
+                return;
+            }
+            ltpPaise = ltp;
+            marked = true;
+            apply((ltp - entryPaise) * signedQuantity);
+        }
+
+        synchronized void refreshEntry() {
+            readEntry();
+            if (marked) {
+                apply((ltpPaise - entryPaise) * signedQuantity);
+            }
+        }
+
+        synchronized void close() {
+            if (!closed) {
+                apply(0L);
+                closed = true;
+            }
+        }
+
+        synchronized MtmSnapshot.Leg view() {
+            return new MtmSnapshot.Leg(trade.getOrderId(), trade.getSymbol(), instrumentToken,
+                    signedQuantity, entryPaise, ltpPaise, mtmPaise);
+        }
+
+        private void readEntry() {
+            entryPaise = FixedPoint.toPaise(trade.getEntryPrice());
+            signedQuantity = trade.getType() == Trade.TradeType.SELL ? -trade.getQuantity() : trade.getQuantity();
+        }
+
+        private void apply(long mtm) {
+            long delta = mtm - mtmPaise;
+            if (delta != 0L) {
+                mtmPaise = mtm;
+                straddle.mtmPaise.addAndGet(delta);
+                unrealizedPaise.addAndGet(delta);
+            }
+        }
+    }
+}
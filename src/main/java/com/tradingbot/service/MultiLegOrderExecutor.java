@@ -0,0 +1,119 @@
+package com.tradingbot.service;
+
+import com.tradingbot.model.MultiLegOrderResponse;
+import com.tradingbot.model.OrderRequest;
+import com.tradingbot.model.OrderResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Places all legs of a multi-leg position at the same time.
+ * <p>
+ * Each leg runs its blocking REST call on its own thread from a dedicated pool, so the gap
+ * between legs no longer grows with Kite's order latency. Legs sent without a price are
+ * quoted together in one batched LTP request just before they are placed, which keeps quote
+ * latency off the legs that are already priced.
+ */
+@Slf4j
+@Service
+public class MultiLegOrderExecutor {
+
+    private final KiteService kiteService;
+    private final ExecutorService executor;
+
+    public MultiLegOrderExecutor(KiteService kiteService,
+                                 @Value("${trading.orders.leg-threads:4}") int legThreads) {
+        this.kiteService = kiteService;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(legThreads, runnable -> {
+            Thread thread = new Thread(runnable, "order-leg-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Sends every leg concurrently and waits for all of them to return.
+     * A failed leg does not cancel the others; check {@link MultiLegOrderResponse#isComplete()}.
+     */
+    public MultiLegOrderResponse execute(List<OrderRequest> legs) {
+        long start = System.nanoTime();
+        CompletableFuture<Map<String, BigDecimal>> quotes = quoteUnpricedLegs(legs);
+        List<CompletableFuture<OrderResponse>> pending = new ArrayList<>(legs.size());
+        for (OrderRequest leg : legs) {
+            if (leg.getPrice() != null) {
+                pending.add(CompletableFuture.supplyAsync(() -> place(leg, leg.getPrice()), executor));
+            } else {
+                pending.add(quotes.thenApplyAsync(prices -> {
+                    BigDecimal quote = prices.get(leg.getTradingSymbol());
+                    if (quote == null || quote.signum() <= 0) {
+                        // A market order fills whatever price it carries, so the leg still goes out,
+                        // but its price stays unknown rather than being recorded as zero.
+                        log.warn("No quote for {}; placing it without a reference price", leg.getTradingSymbol());
+                        return place(leg, BigDecimal.ZERO);
+                    }
+                    leg.setPrice(quote);
+                    return place(leg, quote);
+                }, executor));
+            }
+        }
+        List<OrderResponse> responses = new ArrayList<>(legs.size());
+        for (CompletableFuture<OrderResponse> future : pending) {
+            responses.add(future.join());
+        }
+        long elapsed = System.nanoTime() - start;
+        log.info("Placed {} legs in {} µs", legs.size(), elapsed / 1_000);
+        return new MultiLegOrderResponse(legs, responses, elapsed);
+    }
+
+    /**
+     * Quotes every leg sent without a price in one batched LTP request, off the caller's thread,
+     * so priced legs go out immediately.
+     */
+    private CompletableFuture<Map<String, BigDecimal>> quoteUnpricedLegs(List<OrderRequest> legs) {
+        List<String> symbols = new ArrayList<>();
+        for (OrderRequest leg : legs) {
+            if (leg.getPrice() == null) {
+                symbols.add(leg.getTradingSymbol());
+            }
+        }
+        if (symbols.isEmpty()) {
+            return CompletableFuture.completedFuture(Collections.emptyMap());
+        }
+        return CompletableFuture.supplyAsync(() -> kiteService.getLastPrices(symbols), executor)
+                .exceptionally(e -> {
+                    log.error("Error quoting unpriced legs {}", symbols, e);
+                    return Collections.emptyMap();
+                });
+    }
+
+    private OrderResponse place(OrderRequest leg, BigDecimal price) {
+        try {
+            String orderId = kiteService.placeOrder(leg.getTradingSymbol(), leg.getTransactionType(),
+                    leg.getQuantity(), leg.getOrderType(), price);
+            return orderId != null
+                    ? OrderResponse.builder().orderId(orderId).status(OrderResponse.OrderStatus.SUCCESS).build()
+                    : OrderResponse.builder().status(OrderResponse.OrderStatus.FAILED).message("Order rejected").build();
+        } catch (Exception e) {
+            log.error("Error placing leg {}", leg.getTradingSymbol(), e);
+            return OrderResponse.builder().status(OrderResponse.OrderStatus.FAILED).message(e.getMessage()).build();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,126 @@
+package com.tradingbot.service;
+
+import com.tradingbot.dto.NfoInstrument;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Streaming parser for the Kite {@code /instruments/NFO} CSV dump.
+ * <p>
+ * Rows are read one at a time from the response stream and filtered by underlying and
+ * instrument type before any field is materialised, so the multi-MB body is never held in
+ * memory and rejected rows cost a single line read. Column layout:
+ * <pre>
+ * instrument_token,exchange_token,tradingsymbol,name,last_price,expiry,strike,tick_size,lot_size,instrument_type,segment,exchange
+ * </pre>
+ * Instances keep per-row scratch state and must not be shared between threads.
+ */
+@Slf4j
+public final class NfoInstrumentParser {
+
+    private static final int FIELD_COUNT = 12;
+    private static final int NAME = 3;
+    private static final int INSTRUMENT_TYPE = 9;
+
+    private final Set<String> underlyings;
+    private final int[] starts = new int[FIELD_COUNT];
+    private final int[] ends = new int[FIELD_COUNT];
+
+    /**
+     * @param underlyings option underlyings to keep, matched against the unquoted {@code name} column
+     */
+    public NfoInstrumentParser(Set<String> underlyings) {
+        this.underlyings = underlyings;
+    }
+
+    /**
+     * Parses CE/PE rows for the configured underlyings into a new instrument master.
+     * The stream is consumed but not closed.
+     */
+    public InstrumentMaster parse(InputStream in) throws IOException {
+        InstrumentMaster.Builder builder = InstrumentMaster.builder();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+        String line;
+        int skipped = 0;
+        String firstSkipped = null;
+        while ((line = reader.readLine()) != null) {
+            if (!split(line) || !isOption(line)) {
+                continue;
+            }
+            String underlying = underlyingOf(line);
+            if (underlying == null) {
+                continue;
+            }
+            NfoInstrument instrument = new NfoInstrument(field(line, 0), field(line, 1), field(line, 2),
+                    underlying, field(line, 4), field(line, 5), field(line, 6), field(line, 7),
+                    field(line, 8), field(line, 9), field(line, 10), field(line, 11));
+            try {
+                builder.add(instrument, underlying, Long.parseLong(instrument.getInstrumentToken()),
+                        LocalDate.parse(instrument.getExpiry()), Double.parseDouble(instrument.getStrike()));
+            } catch (RuntimeException e) {
+                // Malformed row; the dump occasionally carries blank expiries for new listings.
+                if (skipped++ == 0) {
+                    firstSkipped = line;
+                }
+            }
+        }
+        if (skipped > 0) {
+            log.warn("Skipped {} malformed option rows in the instrument dump, first: {}", skipped, firstSkipped);
+        }
+        return builder.build();
+    }
+
+    /** Records the field boundaries of {@code line}; returns false when it has too few columns. */
+    private boolean split(String line) {
+        int field = 0;
+        int start = 0;
+        int length = line.length();
+        if (length > 0 && line.charAt(length - 1) == '\r') {
+            length--;
+        }
+        for (int i = 0; i < length && field < FIELD_COUNT - 1; i++) {
+            if (line.charAt(i) == ',') {
+                starts[field] = start;
+                ends[field] = i;
+                field++;
+                start = i + 1;
+            }
+        }
+        starts[field] = start;
+        ends[field] = length;
+        return field == FIELD_COUNT - 1;
+    }
+
+    private boolean isOption(String line) {
+        int start = starts[INSTRUMENT_TYPE];
+        return ends[INSTRUMENT_TYPE] - start == 2
+                && (line.startsWith("CE", start) || line.startsWith("PE", start));
+    }
+
+    /** Returns the configured underlying named in this row, without allocating for rejected rows. */
+    private String underlyingOf(String line) {
+        int start = starts[NAME];
+        int end = ends[NAME];
+        if (end - start >= 2 && line.charAt(start) == '"' && line.charAt(end - 1) == '"') {
+            start++;
+            end--;
+        }
+        for (String underlying : underlyings) {
+            if (underlying.length() == end - start && line.startsWith(underlying, start)) {
+                return underlying;
+            }
+        }
+        return null;
+    }
+
+    private String field(String line, int index) {
+        return line.substring(starts[index], ends[index]);
+    }
+}
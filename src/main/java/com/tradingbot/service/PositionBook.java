@@ -0,0 +1,226 @@
+package com.tradingbot.service;
+
+import com.tradingbot.entity.Trade;
+import com.tradingbot.repository.TradeRepository;
+import com.tradingbot.util.LongObjectTable;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory book of live trades, indexed by instrument token for the tick path.
+ * <p>
+ * Reads never touch the database: {@link #tradesFor(long)} is a lock-free, allocation-free lookup
+ * into an immutable snapshot that is rebuilt whenever a trade is added, updated or closed.
+ * Every mutation is written through to {@link TradeRepository} on a single background thread,
+ * so saves for the same trade are applied in the order they were made.
+ */
+@Slf4j
+@Component
+public class PositionBook {
+
+    private static final Trade[] NO_TRADES = new Trade[0];
+
+    private final TradeRepository tradeRepository;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "trade-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Live (non-terminal) trades keyed by order id. Guarded by {@code this}. */
+    private final Map<String, Trade> liveTrades = new HashMap<>();
+    /**
+     * Closed trades whose final save is still queued, keyed by order id, so they stay findable
+     * until the repository has them. Guarded by {@code this}.
+     */
+    private final Map<String, Trade> closingTrades = new HashMap<>();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
+
+    public PositionBook(TradeRepository tradeRepository) {
+        this.tradeRepository = tradeRepository;
+    }
+
+    @PostConstruct
+    void load() {
+        int backfilled = tradeRepository.backfillEntryTimestamps(LocalDateTime.now());
+        if (backfilled > 0) {
+            log.info("Backfilled entry timestamps on {} trades", backfilled);
+        }
+        List<Trade> openTrades = tradeRepository.findByStatus(Trade.TradeStatus.OPEN);
+        synchronized (this) {
+            openTrades.forEach(trade -> liveTrades.put(keyOf(trade), trade));
+            rebuild();
+        }
+        notifyChanged();
+        log.info("Position book loaded with {} open trades", openTrades.size());
+    }
+
+    /**
+     * Returns the open trades on the given instrument token, or an empty array when there are none.
+     */
+    public Trade[] tradesFor(long instrumentToken) {
+        return snapshot.get(instrumentToken);
+    }
+
+    /**
+     * Returns an immutable view of all open trades.
+     */
+    public List<Trade> openTrades() {
+        return snapshot.openTrades;
+    }
+
+    public boolean isEmpty() {
+        return snapshot.openTrades.isEmpty();
+    }
+
+    /**
+     * Finds a live trade, or a closed one whose save is still queued, by its order id without
+     * going to the database.
+     */
+    public synchronized Optional<Trade> findByOrderId(String orderId) {
+        Trade trade = liveTrades.get(orderId);
+        return Optional.ofNullable(trade != null ? trade : closingTrades.get(orderId));
+    }
+
+    /**
+     * Records a new or changed trade and writes it through to the repository.
+     * Trades in a terminal state leave the open trades at once, and the book once persisted.
+     */
+    public void update(Trade trade) {
+        String key = keyOf(trade);
+        boolean live = isLive(trade.getStatus());
+        synchronized (this) {
+            if (live) {
+                liveTrades.put(key, trade);
+                closingTrades.remove(key, trade);
+            } else {
+                liveTrades.values().removeIf(open -> open == trade);
+                closingTrades.put(key, trade);
+            }
+            rebuild();
+        }
+        notifyChanged();
+        writer.execute(() -> {
+            persist(trade);
+            if (!live) {
+                synchronized (this) {
+                    closingTrades.remove(key, trade);
+                }
+            }
+        });
+    }
+
+    /**
+     * Registers a callback that runs, on the updating thread, after every change to the book.
+     */
+    public void addChangeListener(Runnable listener) {
+        changeListeners.add(listener);
+    }
+
+    @PreDestroy
+    void flush() throws InterruptedException {
+        writer.shutdown();
+        if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Trade writer did not drain within 10s; {} pending saves dropped", writer.shutdownNow().size());
+        }
+    }
+
+    private void persist(Trade trade) {
+        try {
+            tradeRepository.save(trade);
+        } catch (Exception e) {
+            log.error("Failed to persist trade {} (orderId={})", trade.getSymbol(), trade.getOrderId(), e);
+        }
+    }
+
+    private void notifyChanged() {
+        for (Runnable listener : changeListeners) {
+            try {
+                listener.run();
+            } catch (Exception e) {
+                log.error("Position book change listener failed", e);
+            }
+        }
+    }
+
+    private void rebuild() {
+        List<Trade> open = new ArrayList<>();
+        for (Trade trade : liveTrades.values()) {
+            if (trade.getStatus() == Trade.TradeStatus.OPEN) {
+                open.add(trade);
+            }
+        }
+        snapshot = Snapshot.of(open);
+    }
+
+    private static boolean isLive(Trade.TradeStatus status) {
+        return status == Trade.TradeStatus.OPEN
+                || status == Trade.TradeStatus.PENDING
+                || status == Trade.TradeStatus.TRIGGER_PENDING;
+    }
+
+    private static String keyOf(Trade trade) {
+        return trade.getOrderId() != null ? trade.getOrderId() : "trade-" + System.identityHashCode(trade);
+    }
+
+    /**
+     * Parses a stored instrument token, returning {@code 0} when it is missing or not numeric.
+     */
+    public static long parseToken(String instrumentToken) {
+        if (instrumentToken == null) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(instrumentToken.trim());
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    /**
+     * Immutable view of the open trades, indexed by instrument token.
+     */
+    private static final class Snapshot {
+        static final Snapshot EMPTY = of(Collections.emptyList());
+
+        final LongObjectTable<Trade[]> byToken;
+        final List<Trade> openTrades;
+
+        private Snapshot(LongObjectTable<Trade[]> byToken, List<Trade> openTrades) {
+            this.byToken = byToken;
+            this.openTrades = openTrades;
+        }
+
+        static Snapshot of(List<Trade> open) {
+            Map<Long, List<Trade>> grouped = new HashMap<>();
+            for (Trade trade : open) {
+                long token = parseToken(trade.getInstrumentToken());
+                if (token != 0L) {
+                    grouped.computeIfAbsent(token, t -> new ArrayList<>()).add(trade);
+                }
+            }
+            Map<Long, Trade[]> byToken = new HashMap<>();
+            grouped.forEach((token, trades) -> byToken.put(token, trades.toArray(NO_TRADES)));
+            return new Snapshot(LongObjectTable.of(byToken), Collections.unmodifiableList(open));
+        }
+
+        Trade[] get(long token) {
+            return byToken.getOrDefault(token, NO_TRADES);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.tradingbot.service;
+
+import com.tradingbot.entity.Trade;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The one rule that groups open legs into straddles, shared by the strategy's exit path and the
+ * {@link MtmEngine}, so a pair exited together is also marked together.
+ * <p>
+ * Legs of the same strategy belong to one straddle when they were entered less than
+ * {@link #WINDOW} after the straddle's first leg. A leg without an entry time cannot be paired
+ * and stands alone.
+ */
+@Slf4j
+public final class StraddlePairing {
+
+    public static final Duration WINDOW = Duration.ofMinutes(1);
+
+    private StraddlePairing() {
+    }
+
+    /**
+     * Groups trades into straddles in entry order, keyed by strategy and the first leg's entry time.
+     */
+    public static Map<String, List<Trade>> group(Collection<Trade> trades) {
+        Map<String, List<Trade>> straddles = new LinkedHashMap<>();
+        List<Trade> timed = new ArrayList<>(trades.size());
+        for (Trade trade : trades) {
+            if (trade.getEntryTimestamp() != null) {
+                timed.add(trade);
+            } else {
+                log.warn("Trade {} (orderId={}) has no entry timestamp; treating it as its own straddle",
+                        trade.getSymbol(), trade.getOrderId());
+                List<Trade> alone = new ArrayList<>(1);
+                alone.add(trade);
+                straddles.put(trade.getStrategy() + "#" + (trade.getOrderId() != null
+                        ? trade.getOrderId() : Integer.toHexString(System.identityHashCode(trade))), alone);
+            }
+        }
+        timed.sort(Comparator.comparing(Trade::getEntryTimestamp));
+
+        // The straddle each strategy is currently filling, and when its first leg was entered.
+        Map<String, List<Trade>> filling = new HashMap<>();
+        Map<String, Trade> firstLegs = new HashMap<>();
+        for (Trade trade : timed) {
+            String strategy = String.valueOf(trade.getStrategy());
+            Trade first = firstLegs.get(strategy);
+            if (first == null || !trade.getEntryTimestamp().isBefore(first.getEntryTimestamp().plus(WINDOW))) {
+                List<Trade> legs = new ArrayList<>(2);
+                straddles.put(strategy + "@" + trade.getEntryTimestamp().truncatedTo(ChronoUnit.SECONDS), legs);
+                filling.put(strategy, legs);
+                firstLegs.put(strategy, trade);
+            }
+            filling.get(strategy).add(trade);
+        }
+        return straddles;
+    }
+
+    /**
+     * Returns another leg of the straddle that {@code trade} belongs to among the open trades,
+     * or {@code null} when it stands alone.
+     */
+    public static Trade otherLeg(Trade trade, Collection<Trade> openTrades) {
+        List<Trade> candidates = new ArrayList<>(openTrades);
+        if (candidates.stream().noneMatch(open -> open == trade)) {
+            candidates.add(trade);
+        }
+        for (List<Trade> legs : group(candidates).values()) {
+            if (legs.stream().anyMatch(leg -> leg == trade)) {
+                // Identity check: the book may hold trades whose async insert has not assigned an id yet.
+                return legs.stream().filter(leg -> leg != trade).findFirst().orElse(null);
+            }
+        }
+        return null;
+    }
+}
@@ -1,10 +1,14 @@
 package com.tradingbot.service;
 
+import com.tradingbot.dto.StrategyLoopStats;
 import com.tradingbot.dto.TradingConfigDto;
 import com.tradingbot.strategy.StrategyType;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 public interface StrategyService {
     void runStrategy(StrategyType type, TradingConfigDto config);
+    List<StrategyLoopStats> loopStats();
 }
@@ -1,11 +1,13 @@
 package com.tradingbot.service;
 
+import com.tradingbot.dto.StrategyLoopStats;
 import com.tradingbot.dto.TradingConfigDto;
 import com.tradingbot.strategy.Strategy;
 import com.tradingbot.strategy.StrategyType;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -26,4 +28,9 @@ public class StrategyServiceImpl implements StrategyService {
         }
         strategy.execute(config);
     }
+
+    @Override
+    public List<StrategyLoopStats> loopStats() {
+        return strategies.values().stream().map(Strategy::getLoopStats).toList();
+    }
 }
@@ -0,0 +1,105 @@
+package com.tradingbot.service;
+
+import com.tradingbot.journal.TickJournalFormat;
+import com.tradingbot.journal.TickJournalWriter;
+import com.tradingbot.util.FixedPoint;
+import com.zerodhatech.models.Depth;
+import com.zerodhatech.models.Tick;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records every websocket tick to the {@link TickJournalWriter tick journal} for later replay.
+ * <p>
+ * Called on the KiteTicker callback thread, which owns the writer. Recording copies primitives
+ * from the tick into the mapped journal and does not allocate; a tick that cannot be written is
+ * counted as dropped rather than holding up the feed.
+ */
+@Slf4j
+@Component
+public class TickRecorder {
+
+    private final TickJournalWriter writer;
+    private final boolean depth;
+
+    /**
+     * Recording is opt-in. A journal that cannot be opened is logged and recording stays off,
+     * so a missing or read-only directory never stops the bot from trading.
+     */
+    public TickRecorder(@Value("${trading.journal.enabled:false}") boolean enabled,
+                        @Value("${trading.journal.dir:data/journal}") String dir,
+                        @Value("${trading.journal.depth:false}") boolean depth,
+                        @Value("${trading.journal.segment-records:1048576}") int segmentRecords) {
+        this.writer = enabled ? open(Path.of(dir), depth, segmentRecords) : null;
+        this.depth = depth;
+        if (writer != null) {
+            log.info("Recording ticks to {}{}", dir, depth ? " with market depth" : "");
+        }
+    }
+
+    private static TickJournalWriter open(Path dir, boolean depth, int segmentRecords) {
+        try {
+            return new TickJournalWriter(dir, depth, segmentRecords);
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not open tick journal in {}; ticks will not be recorded", dir, e);
+            return null;
+        }
+    }
+
+    /**
+     * @param exchangeTime the tick time used downstream, in epoch millis
+     * @param receivedAt   local wall-clock time the frame arrived, in epoch millis
+     */
+    public void record(Tick tick, long exchangeTime, long receivedAt) {
+        if (writer == null) {
+            return;
+        }
+        int offset = writer.reserve(receivedAt);
+        if (offset < 0) {
+            return;
+        }
+        if (depth) {
+            Map<String, ? extends List<Depth>> book = tick.getMarketDepth();
+            if (book != null) {
+                putDepth(offset, TickJournalFormat.BUY, book.get("buy"));
+                putDepth(offset, TickJournalFormat.SELL, book.get("sell"));
+            }
+        }
+        writer.commit(offset, tick.getInstrumentToken(), exchangeTime, receivedAt,
+                FixedPoint.toPaise(tick.getLastTradedPrice()), tick.getVolumeTradedToday(), (long) tick.getOi());
+    }
+
+    public long getRecorded() {
+        return writer != null ? writer.getWritten() : 0L;
+    }
+
+    public long getDropped() {
+        return writer != null ? writer.getDropped() : 0L;
+    }
+
+    @PreDestroy
+    void close() {
+        if (writer != null) {
+            writer.close();
+            log.info("Tick journal closed after {} ticks ({} dropped)", writer.getWritten(), writer.getDropped());
+        }
+    }
+
+    private void putDepth(int offset, int side, List<Depth> levels) {
+        if (levels == null) {
+            return;
+        }
+        for (int level = 0, n = Math.min(levels.size(), TickJournalFormat.DEPTH_LEVELS); level < n; level++) {
+            Depth quote = levels.get(level);
+            writer.putDepth(offset, side, level, FixedPoint.toPaise(quote.getPrice()), quote.getQuantity(),
+                    quote.getOrders());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.tradingbot.service;
+
+import com.tradingbot.dto.TradeHistoryItem;
+import com.tradingbot.dto.TradeHistoryPage;
+import com.tradingbot.repository.TradeRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Keyset-paginated trade history. Each page is located by the entry timestamp and id of the last
+ * row of the previous page, so it is an index seek however much history has accumulated.
+ */
+@Service
+public class TradeHistoryService {
+
+    static final int MAX_PAGE_SIZE = 200;
+
+    private final TradeRepository tradeRepository;
+
+    public TradeHistoryService(TradeRepository tradeRepository) {
+        this.tradeRepository = tradeRepository;
+    }
+
+    /**
+     * Returns the most recent trades, newest first.
+     */
+    public List<TradeHistoryItem> recent(int size) {
+        return tradeRepository.findHistory(PageRequest.ofSize(clamp(size)));
+    }
+
+    /**
+     * Returns the page of history after the given cursor, or the first page when both cursor
+     * values are {@code null}.
+     */
+    public TradeHistoryPage page(LocalDateTime beforeTimestamp, Long beforeId, int size) {
+        if ((beforeTimestamp == null) != (beforeId == null)) {
+            throw new IllegalArgumentException("beforeTimestamp and beforeId must be given together");
+        }
+        int pageSize = clamp(size);
+        // One extra row tells us whether another page follows without a count query.
+        PageRequest request = PageRequest.ofSize(pageSize + 1);
+        List<TradeHistoryItem> rows = beforeTimestamp == null
+                ? tradeRepository.findHistory(request)
+                : tradeRepository.findHistoryBefore(beforeTimestamp, beforeId, request);
+        if (rows.size() <= pageSize) {
+            return new TradeHistoryPage(rows, null, null);
+        }
+        List<TradeHistoryItem> items = rows.subList(0, pageSize);
+        TradeHistoryItem last = items.get(pageSize - 1);
+        return new TradeHistoryPage(items, last.getEntryTimestamp(), last.getId());
+    }
+
+    private static int clamp(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+}
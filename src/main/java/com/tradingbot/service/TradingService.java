@@ -3,16 +3,15 @@ package com.tradingbot.service;
 import com.tradingbot.dto.NfoInstrument;
 import com.tradingbot.dto.PriceTick;
 import com.tradingbot.dto.TradingConfigDto;
-import com.tradingbot.entity.DailyPnL;
 import com.tradingbot.entity.Trade;
 import com.tradingbot.event.PriceTickEvent;
-import com.tradingbot.repository.DailyPnLRepository;
+import com.tradingbot.model.MultiLegOrderResponse;
+import com.tradingbot.model.OrderRequest;
 import com.tradingbot.repository.TradeRepository;
 import com.zerodhatech.models.Order;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.lang.reflect.Field;
@@ -29,18 +28,18 @@ import java.util.Optional;
 @Service
 public class TradingService {
 
-    private static final Trade.TradeStatus STATUS_OPEN = Trade.TradeStatus.OPEN;
     private static final String STRATEGY_STRADDLE = "STRADDLE";
+    private static final int ORDER_QUANTITY = 35;
     public static final String TRANSACTION_BUY = "BUY";
     public static final String TRANSACTION_SELL = "SELL";
 
     private final KiteService kiteService;
     private final TradeRepository tradeRepository;
-    private final DailyPnLRepository dailyPnLRepository;
+    private final DailyPnLTracker dailyPnLTracker;
+    private final MtmEngine mtmEngine;
     private final KiteTickerService kiteTickerService;
-
-    @Value("${trading.strategy.max-daily-loss}")
-    private BigDecimal maxDailyLoss;
+    private final PositionBook positionBook;
+    private final MultiLegOrderExecutor multiLegOrderExecutor;
 
     @Value("${trading.strategy.profit-target}")
     private BigDecimal profitTarget;
@@ -50,19 +49,48 @@ public class TradingService {
 
     private LocalDate selectedExpiryDate;
     @Getter
-    private boolean tradingActive = false;
-    private List<Trade> activeTrades = new ArrayList<>();
+    private volatile boolean tradingActive = false;
 
     public TradingService(KiteService kiteService, TradeRepository tradeRepository,
-                          DailyPnLRepository dailyPnLRepository, KiteTickerService kiteTickerService) {
+                          DailyPnLTracker dailyPnLTracker, KiteTickerService kiteTickerService,
+                          PositionBook positionBook, MultiLegOrderExecutor multiLegOrderExecutor,
+                          MtmEngine mtmEngine) {
         this.kiteService = kiteService;
         this.tradeRepository = tradeRepository;
-        this.dailyPnLRepository = dailyPnLRepository;
+        this.dailyPnLTracker = dailyPnLTracker;
         this.kiteTickerService = kiteTickerService;
+        this.positionBook = positionBook;
+        this.multiLegOrderExecutor = multiLegOrderExecutor;
+        this.mtmEngine = mtmEngine;
     }
 
     public String placeOrder(String symbol, String transactionType, BigDecimal price) {
-        return kiteService.placeOrder(symbol, transactionType, 35, "MARKET", price);
+        return kiteService.placeOrder(symbol, transactionType, ORDER_QUANTITY, "MARKET", price);
+    }
+
+    /**
+     * Builds a market order leg for {@link #placeOrders(List)}.
+     *
+     * @param price the reference price, or {@code null} to quote the symbol when the leg is sent
+     */
+    public OrderRequest marketLeg(String symbol, String transactionType, int quantity, BigDecimal price) {
+        return OrderRequest.builder()
+                .tradingSymbol(symbol)
+                .transactionType(transactionType)
+                .quantity(quantity)
+                .price(price)
+                .build();
+    }
+
+    public OrderRequest marketLeg(String symbol, String transactionType, BigDecimal price) {
+        return marketLeg(symbol, transactionType, ORDER_QUANTITY, price);
+    }
+
+    /**
+     * Places all legs concurrently and returns the combined result.
+     */
+    public MultiLegOrderResponse placeOrders(List<OrderRequest> legs) {
+        return multiLegOrderExecutor.execute(legs);
     }
 
     public void saveTrade(String symbol, String transactionType, String orderId, BigDecimal price, String instrumentToken, Trade.TradeStatus status) {
@@ -70,12 +98,12 @@ public class TradingService {
             log.error("Order ID is null, cannot save trade for symbol: {}", symbol);
             return;
         }
-        Optional<Trade> maybeTrade = tradeRepository.findByOrderId(orderId);
+        Optional<Trade> maybeTrade = findTradeByOrderId(orderId);
         if (maybeTrade.isEmpty()) {
-            Trade trade = new Trade(symbol, transactionType, 35, price, STRATEGY_STRADDLE, status);
+            Trade trade = new Trade(symbol, transactionType, ORDER_QUANTITY, price, STRATEGY_STRADDLE, status);
             trade.setOrderId(orderId);
             trade.setInstrumentToken(instrumentToken);
-            tradeRepository.save(trade);
+            positionBook.update(trade);
             log.info("Trade saved: {} at {}. OrderId: {}. Status: {}", symbol, price, orderId, status);
         }
     }
@@ -91,31 +119,98 @@ public class TradingService {
 //        csvFeedSimulator.simulateFeedAsync();
     }
 
-    private void unsubscribeFromTokens(String symbols) {
-//        List<Long> tokens = new ArrayList<>();
-//        tokens.add(Long.valueOf(symbols));
-        kiteTickerService.unsubscribe();
+    /**
+     * Stops ticks for the tokens of closed trades that no other open trade still needs.
+     * Legs that failed to close keep their subscription so their exit is retried on the next tick.
+     */
+    private void unsubscribeFromTokens(List<Trade> closedTrades) {
+        List<Long> tokens = new ArrayList<>(closedTrades.size());
+        for (Trade trade : closedTrades) {
+            long token = PositionBook.parseToken(trade.getInstrumentToken());
+            if (token != 0L && !tokens.contains(token) && positionBook.tradesFor(token).length == 0) {
+                tokens.add(token);
+            }
+        }
+        kiteTickerService.unsubscribe(tokens);
     }
 
     public void closeTrade(Trade trade, String transactionType, BigDecimal currentPrice, BigDecimal priceDiff) {
         log.info("Placing sell order to close trade for symbol: {}", trade.getSymbol());
         String orderId = kiteService.placeOrder(trade.getSymbol(), TRANSACTION_SELL, trade.getQuantity(), "MARKET", currentPrice);
         if (orderId != null) {
-            trade.setStatus(Trade.TradeStatus.COMPLETE);
-            trade.setExitPrice(currentPrice);
-            trade.setExitTimestamp(LocalDateTime.now());
-            trade.setPnl(priceDiff.multiply(new BigDecimal(trade.getQuantity())));
-            tradeRepository.save(trade);
+            recordClose(trade, currentPrice, priceDiff);
+            unsubscribeFromTokens(List.of(trade));
+            log.info("Active trades remaining: {}", getActivePositions().size());
+        }
+    }
 
-            updateDailyPnL(trade.getPnl());
-            activeTrades = getActivePositions();
-            unsubscribeFromTokens(trade.getSymbol());
-            log.info("Active trades remaining: {}", activeTrades.size());
+    /**
+     * Closes several legs at once, sending every exit order concurrently.
+     *
+     * @param trades     the legs to close
+     * @param exitPrices index-aligned reference prices; a {@code null} entry is quoted when its order is sent
+     */
+    public MultiLegOrderResponse closeTrades(List<Trade> trades, List<BigDecimal> exitPrices) {
+        log.info("Placing {} sell orders to close trades", trades.size());
+        List<OrderRequest> legs = new ArrayList<>(trades.size());
+        for (int i = 0; i < trades.size(); i++) {
+            Trade trade = trades.get(i);
+            legs.add(marketLeg(trade.getSymbol(), TRANSACTION_SELL, trade.getQuantity(), exitPrices.get(i)));
         }
+        MultiLegOrderResponse result = placeOrders(legs);
+        List<Trade> closed = new ArrayList<>(trades.size());
+        for (int i = 0; i < trades.size(); i++) {
+            if (result.getOrderId(i) != null) {
+                Trade trade = trades.get(i);
+                BigDecimal exitPrice = result.getPrice(i);
+                if (exitPrice != null) {
+                    recordClose(trade, exitPrice, exitPrice.subtract(trade.getEntryPrice()));
+                } else {
+                    recordUnpricedClose(trade);
+                }
+                closed.add(trade);
+            } else {
+                log.error("Exit order failed for {}; leg is still open", trades.get(i).getSymbol());
+            }
+        }
+        unsubscribeFromTokens(closed);
+        log.info("Active trades remaining: {}", getActivePositions().size());
+        return result;
+    }
+
+    private void recordClose(Trade trade, BigDecimal exitPrice, BigDecimal priceDiff) {
+        trade.setStatus(Trade.TradeStatus.COMPLETE);
+        trade.setExitPrice(exitPrice);
+        trade.setExitTimestamp(LocalDateTime.now());
+        trade.setPnl(priceDiff.multiply(new BigDecimal(trade.getQuantity())));
+        positionBook.update(trade);
+
+        dailyPnLTracker.record(trade.getPnl());
+    }
+
+    /**
+     * Closes a trade whose exit order went out without a quote. Its exit price and P&L are left
+     * unknown and kept out of the daily P&L, where a zero price would count the whole premium as a loss.
+     */
+    private void recordUnpricedClose(Trade trade) {
+        trade.setStatus(Trade.TradeStatus.COMPLETE);
+        trade.setExitPrice(null);
+        trade.setExitTimestamp(LocalDateTime.now());
+        trade.setPnl(null);
+        positionBook.update(trade);
+        log.warn("Closed {} without an exit price; its P&L is not recorded", trade.getSymbol());
     }
 
     public List<Trade> getActivePositions() {
-        return tradeRepository.findByStatus(STATUS_OPEN);
+        return positionBook.openTrades();
+    }
+
+    /**
+     * Returns the open trades on an instrument token straight from the in-memory position book.
+     * Returns a shared empty array when nothing is open on the token.
+     */
+    public Trade[] getActivePositions(long instrumentToken) {
+        return positionBook.tradesFor(instrumentToken);
     }
 
     public boolean isTradingTime() {
@@ -124,24 +219,7 @@ public class TradingService {
     }
 
     public boolean isTradingStopped() {
-        return false;
-        /*LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
-        LocalDateTime endOfDay = LocalDate.now().plusDays(1).atStartOfDay();
-        BigDecimal todaysPnL = Optional.of(tradeRepository.findTodaysPnLBetween(startOfDay, endOfDay))
-                .orElse(BigDecimal.ZERO);
-        return todaysPnL.compareTo(maxDailyLoss.negate()) <= 0;*/
-    }
-
-    private void updateDailyPnL(BigDecimal pnl) {
-        LocalDate today = LocalDate.now();
-        DailyPnL dailyPnL = dailyPnLRepository.findByDate(today).orElse(new DailyPnL(today));
-        dailyPnL.setTotalPnl(dailyPnL.getTotalPnl().add(pnl));
-        dailyPnL.setTotalTrades(dailyPnL.getTotalTrades() + 1);
-        if (dailyPnL.getTotalPnl().compareTo(maxDailyLoss.negate()) <= 0) {
-            dailyPnL.setTradingStopped(true);
-            log.warn("Daily loss limit reached. Trading stopped for today.");
-        }
-        dailyPnLRepository.save(dailyPnL);
+        return dailyPnLTracker.isLossLimitReached(mtmEngine.getUnrealizedPaise());
     }
 
     public void startTrading() {
@@ -151,25 +229,28 @@ public class TradingService {
 
     public void stopTrading() {
         tradingActive = false;
-        unsubscribeFromTokens("123");
+        kiteTickerService.unsubscribe();
         log.info("Trading stopped");
     }
 
     public BigDecimal getTodaysPnL() {
-        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
-        LocalDateTime endOfDay = LocalDate.now().plusDays(1).atStartOfDay();
-        return tradeRepository.findTodaysPnLBetween(startOfDay, endOfDay);
+        return dailyPnLTracker.getTodaysPnL();
     }
 
     public void loadTradingConfig(TradingConfigDto config) {
         tradingActive = true;
-        this.maxDailyLoss = config.getMaxDailyLoss();
+        if (config.getMaxDailyLoss() != null) {
+            dailyPnLTracker.setMaxDailyLoss(config.getMaxDailyLoss());
+        }
         this.profitTarget = config.getProfitTarget();
         this.stopLoss = config.getStopLoss();
         this.selectedExpiryDate = config.getExpiryDate();
     }
 
-    @EventListener
+    /**
+     * Applies a Kite order update to its trade. Called on the strategy event loop, which also
+     * closes trades, so an update never races an exit of the same leg.
+     */
     public void handleOrderUpdate(Order order) {
         log.info("Order Update Received: {}", order.tradingSymbol+" "+order.status);
         updateTrade(order);
@@ -254,14 +335,22 @@ public class TradingService {
             }
         }
 
-        Optional<Trade> maybeTrade = tradeRepository.findByOrderId(orderId);
+        Optional<Trade> maybeTrade = findTradeByOrderId(orderId);
         if (maybeTrade.isEmpty()) {
             log.warn("Order update for unknown orderId {} (status={}). Ignoring.", orderId, orderStatus);
-            saveTrade(order.tradingSymbol, order.transactionType, orderId, new BigDecimal(order.price), order.tradingSymbol, mappedStatus);
+            String instrumentToken = Optional.ofNullable(kiteService.getInstrumentToken(order.tradingSymbol)).orElse(order.tradingSymbol);
+            saveTrade(order.tradingSymbol, order.transactionType, orderId, new BigDecimal(order.price), instrumentToken, mappedStatus);
             return;
         }
 
         Trade trade = maybeTrade.get();
+        if (trade.getStatus() == Trade.TradeStatus.COMPLETE
+                || trade.getStatus() == Trade.TradeStatus.CANCELLED
+                || trade.getStatus() == Trade.TradeStatus.REJECTED) {
+            // Already closed, by an exit or an earlier update; Kite often resends final statuses.
+            log.info("Trade (orderId={}) is already {}; ignoring {} update", orderId, trade.getStatus(), orderStatus);
+            return;
+        }
         trade.setStatus(mappedStatus);
 
         // If order completed, attempt to set exit price and pnl
@@ -299,7 +388,7 @@ public class TradingService {
                             priceDiff = priceDiff.negate();
                         }
                         trade.setPnl(priceDiff.multiply(new BigDecimal(qty)));
-                        updateDailyPnL(trade.getPnl());
+                        dailyPnLTracker.record(trade.getPnl());
                     }
                 } catch (Exception e) {
                     log.warn("Could not calculate pnl for trade {}: {}", trade.getId(), e.getMessage());
@@ -307,10 +396,15 @@ public class TradingService {
             }
         }
 
-        tradeRepository.save(trade);
+        positionBook.update(trade);
         log.info("Trade (orderId={}) updated to status {}", orderId, mappedStatus);
     }
 
+    private Optional<Trade> findTradeByOrderId(String orderId) {
+        Optional<Trade> live = positionBook.findByOrderId(orderId);
+        return live.isPresent() ? live : tradeRepository.findByOrderId(orderId);
+    }
+
     private BigDecimal toBigDecimal(Object v) {
         if (v instanceof BigDecimal) return (BigDecimal) v;
         if (v instanceof Double) return BigDecimal.valueOf((Double) v);
@@ -1,26 +1,65 @@
 package com.tradingbot.strategy;
 
+import com.tradingbot.dto.StrategyLoopStats;
 import com.tradingbot.dto.TradingConfigDto;
 import com.tradingbot.entity.Trade;
+import com.tradingbot.event.TickBus;
 import com.tradingbot.service.KiteService;
 import com.tradingbot.service.TradingService;
+import com.tradingbot.util.FixedPoint;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public abstract class AbstractStrategy implements Strategy {
     protected KiteService kiteService;
     protected TradingService tradingService;
+    protected TickBus tickBus;
+    /** Runs every change to this strategy's state; see {@link StrategyEventLoop}. */
+    protected StrategyEventLoop eventLoop;
+
+    @Value("${trading.strategy.event-queue-capacity:4096}")
+    private int eventQueueCapacity;
 
 //    protected List<Trade> activeTrades = new ArrayList<>();
     private BigDecimal profitTarget;
     private BigDecimal stopLoss;
+    private long profitTargetPaise = Long.MAX_VALUE;
+    private long stopLossPaise = Long.MAX_VALUE;
     private LocalDate selectedExpiryDate;
 
-    protected AbstractStrategy(KiteService kiteService, TradingService tradingService) {
+    protected AbstractStrategy(KiteService kiteService, TradingService tradingService, TickBus tickBus) {
         this.kiteService=kiteService;
         this.tradingService=tradingService;
+        this.tickBus=tickBus;
+    }
+
+    @PostConstruct
+    void startEventLoop() {
+        eventLoop = new StrategyEventLoop(getType().name(), eventQueueCapacity, this::handleTick);
+        eventLoop.start();
+    }
+
+    @PreDestroy
+    void stopEventLoop() {
+        eventLoop.stop();
+    }
+
+    /**
+     * Handles a tick queued with {@link StrategyEventLoop#submitTick}, on the event loop thread.
+     */
+    protected void handleTick(long instrumentToken, double lastTradedPrice, long timestamp) {
+    }
+
+    @Override
+    public StrategyLoopStats getLoopStats() {
+        return eventLoop.stats();
     }
 
     protected boolean isTradingTime() {
@@ -40,13 +79,23 @@ public abstract class AbstractStrategy implements Strategy {
         return tradingService.getActivePositions();
     }
 
+    Trade[] getActivePositions(long instrumentToken) {
+        return tradingService.getActivePositions(instrumentToken);
+    }
+
     protected BigDecimal getLTP(String symbol){
         return kiteService.getLastPrice(symbol);
     }
 
+    protected Map<String, BigDecimal> getLTPs(Collection<String> symbols){
+        return kiteService.getLastPrices(symbols);
+    }
+
     protected void loadTradingConfig(TradingConfigDto config){
         this.profitTarget = config.getProfitTarget();
         this.stopLoss = config.getStopLoss();
+        this.profitTargetPaise = profitTarget != null ? FixedPoint.toPaise(profitTarget) : Long.MAX_VALUE;
+        this.stopLossPaise = stopLoss != null ? FixedPoint.toPaise(stopLoss) : Long.MAX_VALUE;
         this.selectedExpiryDate=config.getExpiryDate();
         tradingService.loadTradingConfig(config);
     }
@@ -59,6 +108,20 @@ public abstract class AbstractStrategy implements Strategy {
         return stopLoss;
     }
 
+    /**
+     * Profit target per unit in paise, or {@code Long.MAX_VALUE} before a config is loaded.
+     */
+    protected long getProfitTargetPaise() {
+        return profitTargetPaise;
+    }
+
+    /**
+     * Stop loss per unit in paise, or {@code Long.MAX_VALUE} before a config is loaded.
+     */
+    protected long getStopLossPaise() {
+        return stopLossPaise;
+    }
+
     protected LocalDate getSelectedExpiryDate(){
         return selectedExpiryDate;
     }
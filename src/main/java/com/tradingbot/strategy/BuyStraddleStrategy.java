@@ -1,26 +1,69 @@
 package com.tradingbot.strategy;
 
 import com.tradingbot.dto.NfoInstrument;
-import com.tradingbot.dto.PriceTick;
 import com.tradingbot.dto.TradingConfigDto;
 import com.tradingbot.entity.Trade;
-import com.tradingbot.event.PriceTickEvent;
+import com.tradingbot.event.TickBus;
+import com.tradingbot.event.TickListener;
+import com.tradingbot.model.MultiLegOrderResponse;
 import com.tradingbot.service.KiteService;
+import com.tradingbot.service.PositionBook;
+import com.tradingbot.service.StraddlePairing;
 import com.tradingbot.service.TradingService;
+import com.tradingbot.util.FixedPoint;
+import com.tradingbot.util.LongObjectTable;
+import com.zerodhatech.models.Order;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Slf4j
 @Service
-public class BuyStraddleStrategy extends AbstractStrategy {
+public class BuyStraddleStrategy extends AbstractStrategy implements TickListener {
 
-    protected BuyStraddleStrategy(KiteService kiteService, TradingService tradingService) {
-        super(kiteService, tradingService);
+    private final PositionBook positionBook;
+
+    /** Thresholds by trade identity, computed once per position. Event loop only. */
+    private Map<Trade, ExitThresholds> thresholds = new IdentityHashMap<>();
+    /** Event loop only. */
+    private LongObjectTable<ExitTriggerIndex> exitIndex = LongObjectTable.empty();
+
+    protected BuyStraddleStrategy(KiteService kiteService, TradingService tradingService, TickBus tickBus,
+                                  PositionBook positionBook) {
+        super(kiteService, tradingService, tickBus);
+        this.positionBook = positionBook;
+    }
+
+    /**
+     * Follows the position book so every open position, including ones open before a restart,
+     * has exit thresholds and a tick subscription. Book changes, which follow order updates and
+     * exits, are applied on the event loop like everything else.
+     */
+    @PostConstruct
+    void registerOpenPositions() {
+        positionBook.addChangeListener(() -> eventLoop.submit(StrategyEventLoop.Kind.ORDER_UPDATE,
+                () -> rebuildExitIndex(false)));
+        eventLoop.submit(StrategyEventLoop.Kind.COMMAND, () -> rebuildExitIndex(false));
+    }
+
+    /**
+     * Applies order updates on the event loop, the thread that also exits positions, so a fill
+     * and an exit of the same leg are never applied at once.
+     */
+    @EventListener
+    void onOrderUpdate(Order order) {
+        eventLoop.submit(StrategyEventLoop.Kind.ORDER_UPDATE, () -> tradingService.handleOrderUpdate(order));
     }
 
     @Override
@@ -30,11 +73,18 @@ public class BuyStraddleStrategy extends AbstractStrategy {
 
     @Override
     public void execute(TradingConfigDto config) {
-        loadTradingConfig(config);
-        executeStrategy();
+        eventLoop.submit(StrategyEventLoop.Kind.COMMAND, () -> {
+            loadTradingConfig(config);
+            rebuildExitIndex(true);
+            executeStrategy();
+        });
     }
 
     @Scheduled(cron = "0 */5 9-15 * * MON-FRI")
+    void onSchedule() {
+        eventLoop.submit(StrategyEventLoop.Kind.TIMER, this::executeStrategy);
+    }
+
     private void executeStrategy() {
         log.info("executeStrategy()");
         if (!isTradingTime() || !isAccessTokenValid() || isTradingStopped()) {
@@ -60,12 +110,19 @@ public class BuyStraddleStrategy extends AbstractStrategy {
 
         String ceSymbol = symbols.get(0).getTradingSymbol();
         String peSymbol = symbols.get(1).getTradingSymbol();
-        BigDecimal cePrice = getLTP(ceSymbol);
-        BigDecimal pePrice = getLTP(peSymbol);
+        Map<String, BigDecimal> prices = getLTPs(List.of(ceSymbol, peSymbol));
+        BigDecimal cePrice = prices.get(ceSymbol);
+        BigDecimal pePrice = prices.get(peSymbol);
 
         if (cePrice.compareTo(BigDecimal.ZERO) > 0 && pePrice.compareTo(BigDecimal.ZERO) > 0) {
-            String ceOrderId = tradingService.placeOrder(ceSymbol, TradingService.TRANSACTION_BUY, cePrice);
-            String peOrderId = tradingService.placeOrder(peSymbol, TradingService.TRANSACTION_BUY, pePrice);
+            MultiLegOrderResponse entry = tradingService.placeOrders(List.of(
+                    tradingService.marketLeg(ceSymbol, TradingService.TRANSACTION_BUY, cePrice),
+                    tradingService.marketLeg(peSymbol, TradingService.TRANSACTION_BUY, pePrice)));
+            String ceOrderId = entry.getOrderId(0);
+            String peOrderId = entry.getOrderId(1);
+            if (!entry.isComplete()) {
+                log.error("Straddle entry incomplete: CE order {}, PE order {}", ceOrderId, peOrderId);
+            }
 
             if (ceOrderId != null && peOrderId != null) {
 //                tradingService.saveTrade(ceSymbol, TradingService.TRANSACTION_BUY, ceOrderId, cePrice, symbols.get(0).getInstrumentToken(), Trade.TradeStatus.OPEN);
@@ -78,56 +135,103 @@ public class BuyStraddleStrategy extends AbstractStrategy {
         }
     }
 
-    @EventListener
-    public void handlePriceTickEvent(PriceTickEvent event) {
-        PriceTick tick = event.getPriceTick();
+    @Override
+    public void onTick(long instrumentToken, double lastTradedPrice, long timestamp) {
+        eventLoop.submitTick(instrumentToken, lastTradedPrice, timestamp);
+    }
+
+    @Override
+    protected void handleTick(long instrumentToken, double lastTradedPrice, long timestamp) {
         try {
-            checkAndClosePositions(tick);
+            checkAndClosePositions(instrumentToken, lastTradedPrice);
         } catch (Exception e) {
-            log.error("Error processing tick for token {}: {}", tick.getInstrumentToken(), e.getMessage(), e);
+            log.error("Error processing tick for token {}: {}", instrumentToken, e.getMessage(), e);
         }
     }
 
-    public void checkAndClosePositions(PriceTick tick) {
-//        log.info("Checking positions for token: {}", tick.getInstrumentToken());
-        if (getActivePositions().isEmpty()) {
+    public void checkAndClosePositions(long instrumentToken, double lastTradedPrice) {
+        ExitTriggerIndex index = exitIndex.get(instrumentToken);
+        if (index == null) {
             return;
         }
 
-        for (Trade trade : getActivePositions()) {
-            if (!trade.getInstrumentToken().equals(String.valueOf(tick.getInstrumentToken()))) {
-                continue;
-            }
-
-            BigDecimal currentPrice = BigDecimal.valueOf(tick.getLastTradedPrice());
-            BigDecimal priceDiff = currentPrice.subtract(trade.getEntryPrice());
-            log.info("currentPrice : " + currentPrice +" | "+"priceDiff : " + priceDiff);
-
-            if (shouldClosePosition(priceDiff)) {
-                log.info("Closing trade for symbol: {}", trade.getSymbol());
+        long ltpPaise = FixedPoint.toPaise(lastTradedPrice);
+        for (ExitThresholds level : index.crossedBy(ltpPaise)) {
+            Trade trade = level.getTrade();
+            // Closing an earlier straddle on this tick may already have taken this leg out.
+            if (trade.getStatus() == Trade.TradeStatus.OPEN) {
+                log.info("Closing trade for symbol: {} at {} (entry {}, exits {} / {})", trade.getSymbol(),
+                        FixedPoint.toRupees(ltpPaise), FixedPoint.toRupees(level.getEntryPaise()),
+                        FixedPoint.toRupees(level.getLowerPaise()), FixedPoint.toRupees(level.getUpperPaise()));
                 log.info("Total active trades before closing: {}", getActivePositions().size());
-                tradingService.closeTrade(trade, TradingService.TRANSACTION_SELL, currentPrice, priceDiff);
-                closeOtherLeg(trade);
-                break;
+                closeStraddle(trade, FixedPoint.toRupees(ltpPaise));
             }
         }
     }
 
-    private void closeOtherLeg(Trade closedTrade) {
-        log.info("Closing other leg of the straddle for trade ID: {}", closedTrade.getId());
-        log.info("Total active trades before closing: {}", getActivePositions().size());
+    /**
+     * Rebuilds the token-indexed exit thresholds from the open positions. Thresholds are kept for
+     * positions that were already indexed unless {@code recompute} is set after a config change.
+     */
+    private void rebuildExitIndex(boolean recompute) {
+        Map<Trade, ExitThresholds> rebuilt = new IdentityHashMap<>();
+        Map<Long, List<ExitThresholds>> grouped = new HashMap<>();
         for (Trade trade : getActivePositions()) {
-            if (!trade.getId().equals(closedTrade.getId()) &&
-                    trade.getEntryTimestamp().isAfter(closedTrade.getEntryTimestamp().minusMinutes(1))) {
+            long token = PositionBook.parseToken(trade.getInstrumentToken());
+            if (token == 0L || trade.getEntryPrice() == null) {
+                continue;
+            }
+            ExitThresholds level = recompute ? null : thresholds.get(trade);
+            if (level == null || level.getEntryPaise() != FixedPoint.toPaise(trade.getEntryPrice())) {
+                level = ExitThresholds.of(trade, getProfitTargetPaise(), getStopLossPaise());
+            }
+            rebuilt.put(trade, level);
+            grouped.computeIfAbsent(token, t -> new ArrayList<>()).add(level);
+        }
+        Map<Long, ExitTriggerIndex> index = new HashMap<>();
+        grouped.forEach((token, levels) -> index.put(token, ExitTriggerIndex.of(levels)));
 
-                BigDecimal currentPrice = kiteService.getLastPrice(trade.getSymbol());
-                tradingService.closeTrade(trade, TradingService.TRANSACTION_SELL, currentPrice, currentPrice.subtract(trade.getEntryPrice()));
-                break;
+        Set<Long> tokens = new HashSet<>(index.keySet());
+        for (ExitThresholds previous : thresholds.values()) {
+            tokens.add(PositionBook.parseToken(previous.getTrade().getInstrumentToken()));
+        }
+        thresholds = rebuilt;
+        exitIndex = LongObjectTable.of(index);
+        for (Long token : tokens) {
+            if (index.containsKey(token)) {
+                tickBus.register(token, this);
+            } else {
+                tickBus.unregister(token, this);
             }
         }
     }
 
-    private boolean shouldClosePosition(BigDecimal priceDiff) {
-        return priceDiff.compareTo(getProfitTarget()) >= 0 || priceDiff.compareTo(getStopLoss().negate()) <= 0;
+    /**
+     * Exits the triggered leg and the other leg of the same straddle with concurrent orders.
+     * The other leg has no tick price at hand, so it is quoted on its own order thread.
+     * The triggered leg is exited even when its other leg cannot be found.
+     */
+    private void closeStraddle(Trade triggeredTrade, BigDecimal currentPrice) {
+        List<Trade> legs = new ArrayList<>(2);
+        List<BigDecimal> exitPrices = new ArrayList<>(2);
+        legs.add(triggeredTrade);
+        exitPrices.add(currentPrice);
+
+        Trade otherLeg = null;
+        try {
+            otherLeg = findOtherLeg(triggeredTrade);
+        } catch (Exception e) {
+            log.error("Could not pair trade {} with its other leg; exiting it alone", triggeredTrade.getSymbol(), e);
+        }
+        if (otherLeg != null) {
+            legs.add(otherLeg);
+            exitPrices.add(null);
+        }
+        tradingService.closeTrades(legs, exitPrices);
+    }
+
+    private Trade findOtherLeg(Trade closedTrade) {
+        log.info("Finding other leg of the straddle for trade ID: {}", closedTrade.getId());
+        return StraddlePairing.otherLeg(closedTrade, getActivePositions());
     }
 }
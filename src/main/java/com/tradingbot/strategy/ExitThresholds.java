@@ -0,0 +1,71 @@
+package com.tradingbot.strategy;
+
+import com.tradingbot.entity.Trade;
+import com.tradingbot.util.FixedPoint;
+
+/**
+ * Target and stop prices of one open trade, precomputed in paise when the position opens so the
+ * tick path only compares {@code long}s.
+ * <p>
+ * For a long leg the target is above the entry and the stop below it; a short leg is mirrored.
+ * A leg exits when the price reaches or crosses either bound.
+ */
+public final class ExitThresholds {
+
+    private final Trade trade;
+    private final long entryPaise;
+    private final long upperPaise;
+    private final long lowerPaise;
+
+    private ExitThresholds(Trade trade, long entryPaise, long upperPaise, long lowerPaise) {
+        this.trade = trade;
+        this.entryPaise = entryPaise;
+        this.upperPaise = upperPaise;
+        this.lowerPaise = lowerPaise;
+    }
+
+    /**
+     * @param targetPaise profit target per unit, in paise; {@code Long.MAX_VALUE} for none
+     * @param stopPaise   stop loss per unit, in paise; {@code Long.MAX_VALUE} for none
+     */
+    public static ExitThresholds of(Trade trade, long targetPaise, long stopPaise) {
+        long entry = FixedPoint.toPaise(trade.getEntryPrice());
+        if (trade.getType() == Trade.TradeType.SELL) {
+            return new ExitThresholds(trade, entry, offset(entry, stopPaise), offset(entry, -targetPaise));
+        }
+        return new ExitThresholds(trade, entry, offset(entry, targetPaise), offset(entry, -stopPaise));
+    }
+
+    public boolean isTriggered(long ltpPaise) {
+        return ltpPaise >= upperPaise || ltpPaise <= lowerPaise;
+    }
+
+    public Trade getTrade() {
+        return trade;
+    }
+
+    public long getEntryPaise() {
+        return entryPaise;
+    }
+
+    public long getUpperPaise() {
+        return upperPaise;
+    }
+
+    public long getLowerPaise() {
+        return lowerPaise;
+    }
+
+    /**
+     * Adds a signed distance to a price, saturating so that "no limit" stays out of reach.
+     */
+    private static long offset(long entryPaise, long distancePaise) {
+        if (distancePaise == Long.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+        if (distancePaise == -Long.MAX_VALUE) {
+            return Long.MIN_VALUE;
+        }
+        return entryPaise + distancePaise;
+    }
+}
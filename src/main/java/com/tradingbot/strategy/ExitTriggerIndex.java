@@ -0,0 +1,109 @@
+package com.tradingbot.strategy;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Exit thresholds of all open positions on one instrument token, sorted by price.
+ * <p>
+ * Upper (long target / short stop) and lower thresholds are kept in two ascending arrays, so a
+ * tick that crosses nothing costs two comparisons against the nearest threshold on each side, no
+ * matter how many positions share the token. When a tick does cross, the crossed positions are a
+ * contiguous run at one end of each array, found by binary search. The index is immutable; crossed
+ * positions leave it when the position book is rebuilt after their exit.
+ */
+public final class ExitTriggerIndex {
+
+    private static final ExitThresholds[] NONE = new ExitThresholds[0];
+
+    private final long[] uppers;
+    private final ExitThresholds[] byUpper;
+    private final long[] lowers;
+    private final ExitThresholds[] byLower;
+
+    private ExitTriggerIndex(ExitThresholds[] byUpper, ExitThresholds[] byLower) {
+        this.byUpper = byUpper;
+        this.byLower = byLower;
+        this.uppers = new long[byUpper.length];
+        this.lowers = new long[byLower.length];
+        for (int i = 0; i < byUpper.length; i++) {
+            uppers[i] = byUpper[i].getUpperPaise();
+            lowers[i] = byLower[i].getLowerPaise();
+        }
+    }
+
+    /**
+     * @param levels thresholds of the open positions on one token; must not be empty
+     */
+    public static ExitTriggerIndex of(List<ExitThresholds> levels) {
+        ExitThresholds[] byUpper = levels.toArray(NONE);
+        ExitThresholds[] byLower = byUpper.clone();
+        Arrays.sort(byUpper, Comparator.comparingLong(ExitThresholds::getUpperPaise));
+        Arrays.sort(byLower, Comparator.comparingLong(ExitThresholds::getLowerPaise));
+        return new ExitTriggerIndex(byUpper, byLower);
+    }
+
+    public int size() {
+        return byUpper.length;
+    }
+
+    /**
+     * Whether the price reaches or crosses the nearest threshold on either side.
+     */
+    public boolean isCrossed(long ltpPaise) {
+        return ltpPaise >= uppers[0] || ltpPaise <= lowers[lowers.length - 1];
+    }
+
+    /**
+     * Returns the positions whose exit the price reaches or crosses, or an empty array.
+     */
+    public ExitThresholds[] crossedBy(long ltpPaise) {
+        if (!isCrossed(ltpPaise)) {
+            return NONE;
+        }
+        // uppers[0, aboveEnd) <= ltp and lowers[belowStart, n) >= ltp
+        int aboveEnd = firstGreater(uppers, ltpPaise);
+        int belowStart = firstAtLeast(lowers, ltpPaise);
+        ExitThresholds[] crossed = new ExitThresholds[aboveEnd + lowers.length - belowStart];
+        int count = 0;
+        for (int i = 0; i < aboveEnd; i++) {
+            crossed[count++] = byUpper[i];
+        }
+        for (int i = lowers.length - 1; i >= belowStart; i--) {
+            // A zero-width band crosses on both sides at once; report it from the upper side only.
+            if (byLower[i].getUpperPaise() > ltpPaise) {
+                crossed[count++] = byLower[i];
+            }
+        }
+        return count == crossed.length ? crossed : Arrays.copyOf(crossed, count);
+    }
+
+    private static int firstGreater(long[] sorted, long value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int firstAtLeast(long[] sorted, long value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,146 @@
+package com.tradingbot.strategy;
+
+import com.tradingbot.dto.StrategyLoopStats;
+import com.tradingbot.event.ConflatingTickBuffer;
+import com.tradingbot.event.TickListener;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Single-threaded event loop that owns the mutable state of one strategy instance.
+ * <p>
+ * Ticks, order updates, timers and commands are queued from any thread onto a bounded queue and
+ * applied one at a time, in arrival order, on the loop's own thread. Strategy state therefore has
+ * a single writer and needs no locks.
+ * <p>
+ * Ticks do not queue one by one. They go into a {@link ConflatingTickBuffer} that keeps the latest
+ * tick per token, and a single tick event drains it. A handler that blocks, for instance on an exit
+ * order, then sees the freshest prices when it returns, and ticks never fill the queue. Other events
+ * wait up to {@link #OFFER_TIMEOUT_MS} for space before being rejected.
+ */
+@Slf4j
+public final class StrategyEventLoop {
+
+    public enum Kind {
+        TICK, ORDER_UPDATE, TIMER, COMMAND
+    }
+
+    private static final long OFFER_TIMEOUT_MS = 1000;
+
+    private final String name;
+    private final int capacity;
+    private final BlockingQueue<Event> queue;
+    private final ConflatingTickBuffer ticks = new ConflatingTickBuffer();
+    private final Event drainTicks;
+    private final AtomicLongArray rejected = new AtomicLongArray(Kind.values().length);
+    private final Thread thread;
+
+    // Written by the loop thread only.
+    private volatile long processed;
+    private volatile int maxDepth;
+    private volatile boolean running = true;
+
+    /**
+     * @param tickHandler receives ticks on the loop thread
+     */
+    public StrategyEventLoop(String name, int capacity, TickListener tickHandler) {
+        this.name = name;
+        this.capacity = capacity;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.drainTicks = new Event(Kind.TICK, () -> ticks.drain(tickHandler));
+        this.thread = new Thread(this::run, "strategy-" + name);
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    public void stop() {
+        running = false;
+        thread.interrupt();
+    }
+
+    /**
+     * Stores a tick as the latest for its token, without blocking, and signals the loop when it is
+     * not already due to drain.
+     */
+    public void submitTick(long instrumentToken, double lastTradedPrice, long timestamp) {
+        if (ticks.offer(instrumentToken, lastTradedPrice, timestamp) && !queue.offer(drainTicks)) {
+            ticks.cancelSignal();
+            rejected.incrementAndGet(Kind.TICK.ordinal());
+        }
+    }
+
+    /**
+     * Queues an action to run on the loop thread.
+     *
+     * @return {@code false} when the queue stayed full and the action was rejected
+     */
+    public boolean submit(Kind kind, Runnable action) {
+        if (Thread.currentThread() == thread) {
+            // Re-entrant submit from a handler: blocking on our own queue could never succeed.
+            if (queue.offer(new Event(kind, action))) {
+                return true;
+            }
+        } else {
+            try {
+                if (queue.offer(new Event(kind, action), OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        rejected.incrementAndGet(kind.ordinal());
+        log.error("Strategy loop {} is full; rejected {} event", name, kind);
+        return false;
+    }
+
+    public StrategyLoopStats stats() {
+        Map<Kind, Long> rejectedByKind = new EnumMap<>(Kind.class);
+        for (Kind kind : Kind.values()) {
+            rejectedByKind.put(kind, rejected.get(kind.ordinal()));
+        }
+        return new StrategyLoopStats(name, capacity, queue.size(), maxDepth, processed, rejectedByKind,
+                ticks.getPendingCount(), ticks.getConflatedCount());
+    }
+
+    private void run() {
+        while (running) {
+            Event event;
+            try {
+                event = queue.take();
+            } catch (InterruptedException e) {
+                break;
+            }
+            int depth = queue.size() + 1;
+            if (depth > maxDepth) {
+                maxDepth = depth;
+            }
+            try {
+                event.action.run();
+            } catch (Exception e) {
+                log.error("Strategy loop {} failed handling {} event", name, event.kind, e);
+            }
+            processed++;
+        }
+        log.info("Strategy loop {} stopped with {} events pending", name, queue.size());
+    }
+
+    private static final class Event {
+        private final Kind kind;
+        private final Runnable action;
+
+        Event(Kind kind, Runnable action) {
+            this.kind = kind;
+            this.action = action;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.tradingbot.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Conversions between rupee prices and fixed-point paise held in a {@code long}.
+ * <p>
+ * NFO option prices move in ticks of {@value #TICK_PAISE} paise, so every exchange price is an
+ * exact number of paise and comparisons in paise give the same answers as {@link BigDecimal}
+ * comparisons, without allocating. Convert at the order and persistence boundaries only.
+ */
+public final class FixedPoint {
+
+    /** Tick size of NFO options, in paise. */
+    public static final long TICK_PAISE = 5L;
+
+    private FixedPoint() {
+    }
+
+    public static long toPaise(double rupees) {
+        return Math.round(rupees * 100);
+    }
+
+    /**
+     * Converts a rupee amount to paise, rounding half-up; {@code null} is treated as zero.
+     */
+    public static long toPaise(BigDecimal rupees) {
+        return rupees == null ? 0L : rupees.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toRupees(long paise) {
+        return BigDecimal.valueOf(paise, 2);
+    }
+}
@@ -0,0 +1,19 @@
+package com.tradingbot.util;
+
+/**
+ * Hash helpers shared by the primitive-keyed tables.
+ */
+public final class Hashing {
+
+    private Hashing() {
+    }
+
+    /**
+     * Spreads an instrument token over the low bits. Tokens are often close together,
+     * so they are multiplied by the 64-bit golden ratio before folding.
+     */
+    public static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
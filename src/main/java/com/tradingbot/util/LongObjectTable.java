@@ -0,0 +1,94 @@
+package com.tradingbot.util;
+
+import java.util.Map;
+
+/**
+ * Immutable open-addressing hash table keyed by primitive {@code long}.
+ * <p>
+ * Lookups do not box the key and never allocate, which makes the table suitable for
+ * per-tick indexes keyed by instrument token. Key {@code 0} is reserved as the empty-slot
+ * marker; Kite never issues it as an instrument token.
+ *
+ * @param <V> the value type
+ */
+public final class LongObjectTable<V> {
+
+    private static final LongObjectTable<?> EMPTY = new LongObjectTable<>(4);
+
+    private final long[] keys;
+    private final Object[] values;
+    private final int mask;
+    private int size;
+
+    private LongObjectTable(int capacity) {
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> LongObjectTable<V> empty() {
+        return (LongObjectTable<V>) EMPTY;
+    }
+
+    /**
+     * Builds a table from the given entries. Entries keyed by {@code 0} are ignored.
+     */
+    public static <V> LongObjectTable<V> of(Map<Long, V> entries) {
+        if (entries.isEmpty()) {
+            return empty();
+        }
+        LongObjectTable<V> table = new LongObjectTable<>(capacityFor(entries.size()));
+        entries.forEach(table::insert);
+        return table;
+    }
+
+    /**
+     * Returns the value mapped to {@code key}, or {@code null} when absent.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int slot = slot(key);
+        long candidate;
+        while ((candidate = keys[slot]) != 0L) {
+            if (candidate == key) {
+                return (V) values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    public V getOrDefault(long key, V defaultValue) {
+        V value = get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void insert(Long key, V value) {
+        if (key == null || key == 0L) {
+            return;
+        }
+        int slot = slot(key);
+        while (keys[slot] != 0L && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == 0L) {
+            size++;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+    }
+
+    private int slot(long key) {
+        return Hashing.mix(key) & mask;
+    }
+
+    /** Smallest power of two that keeps the load factor at or below 0.25. */
+    private static int capacityFor(int entries) {
+        return Integer.highestOneBit(Math.max(4, entries * 4) - 1) << 1;
+    }
+}